@@ -0,0 +1,234 @@
+package io.unitycatalog.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2ConnectionDecoder;
+import io.netty.handler.codec.http2.Http2ConnectionHandler;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameListener;
+import io.netty.handler.codec.http2.Http2FrameListenerDecorator;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * URL transcoder. Iceberg REST clients join namespace levels with the unit separator and send it
+ * percent-encoded as {@code %1F}, which Armeria rejects as an invalid request target. This handler
+ * rewrites {@code %1F} to {@code .} in request targets, in-process, before Armeria parses them.
+ *
+ * <p>Armeria has no hook that runs before the request target is validated, so the rewrite happens
+ * in the Netty pipeline, next to the codec Armeria configures for the connection:
+ *
+ * <ul>
+ *   <li>HTTP/1: right behind the HTTP/1 codec, on the decoded request line. If the connection is
+ *       upgraded to h2c, the HTTP/2 rule below is applied after the upgrade.
+ *   <li>HTTP/2: on the {@code :path} header, by decorating the frame listener of the HTTP/2
+ *       connection handler.
+ *   <li>TLS: Armeria picks HTTP/1 or HTTP/2 once the handshake is done, so one of the two rules
+ *       above is applied when the handshake completes.
+ * </ul>
+ *
+ * <p>This handler is added at the head of every child channel pipeline and removes itself once it
+ * has found out which of the above applies.
+ */
+class URLTranscoder extends ChannelInboundHandlerAdapter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(URLTranscoder.class);
+
+  static final String NAME = "urlTranscoder";
+
+  // Armeria decides the protocol from the first 4 bytes of a cleartext connection
+  private static final int PROTOCOL_DETECTION_LENGTH = 4;
+  // Content type of a TLS handshake record, the first byte of a TLS connection
+  private static final byte TLS_HANDSHAKE = 0x16;
+
+  private ByteBuf cumulation;
+  private boolean tls;
+
+  static void install(ChannelPipeline pipeline) {
+    pipeline.addFirst(NAME, new URLTranscoder());
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (!(msg instanceof ByteBuf)) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+    ChannelPipeline pipeline = ctx.pipeline();
+    if (tls) {
+      ctx.fireChannelRead(msg);
+      awaitTlsHandshake(pipeline);
+      return;
+    }
+    ByteBuf in = cumulate(ctx, (ByteBuf) msg);
+    if (in.readableBytes() < PROTOCOL_DETECTION_LENGTH) {
+      cumulation = in;
+      return;
+    }
+    cumulation = null;
+    if (in.getByte(in.readerIndex()) == TLS_HANDSHAKE) {
+      tls = true;
+      ctx.fireChannelRead(in);
+      awaitTlsHandshake(pipeline);
+      return;
+    }
+    // Let Armeria detect HTTP/1 or HTTP/2 and set up its codec before the rest is decoded
+    ctx.fireChannelRead(in.readRetainedSlice(PROTOCOL_DETECTION_LENGTH));
+    installTranscoder(pipeline);
+    ctx.fireChannelRead(in);
+    pipeline.remove(this);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) {
+    if (cumulation != null) {
+      cumulation.release();
+      cumulation = null;
+    }
+  }
+
+  private ByteBuf cumulate(ChannelHandlerContext ctx, ByteBuf msg) {
+    if (cumulation == null) {
+      return msg;
+    }
+    CompositeByteBuf composite = ctx.alloc().compositeBuffer();
+    composite.addComponents(true, cumulation, msg);
+    return composite;
+  }
+
+  private void awaitTlsHandshake(ChannelPipeline pipeline) {
+    // The SSL handler only shows up once the whole client hello has been read
+    SslHandler sslHandler = pipeline.get(SslHandler.class);
+    if (sslHandler != null) {
+      pipeline.addAfter(pipeline.context(sslHandler).name(), null, new TlsHandshakeListener());
+      pipeline.remove(this);
+    }
+  }
+
+  private static void installTranscoder(ChannelPipeline pipeline) {
+    for (Map.Entry<String, ChannelHandler> entry : pipeline) {
+      ChannelHandler handler = entry.getValue();
+      if (handler instanceof HttpServerUpgradeHandler.SourceCodec) {
+        pipeline.addAfter(entry.getKey(), null, new Http1RequestTranscoder());
+        return;
+      }
+      if (handler instanceof Http2ConnectionHandler) {
+        installHttp2Transcoder((Http2ConnectionHandler) handler);
+        return;
+      }
+    }
+    LOGGER.warn("No HTTP codec found on {}, %1F is not transcoded", pipeline.channel());
+  }
+
+  private static void installHttp2Transcoder(Http2ConnectionHandler handler) {
+    Http2ConnectionDecoder decoder = handler.decoder();
+    decoder.frameListener(new Http2RequestTranscoder(decoder.frameListener()));
+  }
+
+  static String transcode(String uri) {
+    if (uri == null || uri.indexOf('%') < 0) {
+      return uri;
+    }
+    return uri.replace("%1F", ".").replace("%1f", ".");
+  }
+
+  /** Installs the transcoder for the protocol negotiated during the TLS handshake. */
+  private static class TlsHandshakeListener extends ChannelInboundHandlerAdapter {
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      ctx.fireUserEventTriggered(evt);
+      if (evt instanceof SslHandshakeCompletionEvent) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        if (((SslHandshakeCompletionEvent) evt).isSuccess()) {
+          installTranscoder(pipeline);
+        }
+        pipeline.remove(this);
+      }
+    }
+  }
+
+  /** Rewrites the request line of decoded HTTP/1 requests. */
+  private static class Http1RequestTranscoder extends ChannelInboundHandlerAdapter {
+    private boolean upgradeRequested;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (msg instanceof HttpRequest) {
+        HttpRequest request = (HttpRequest) msg;
+        String uri = request.uri();
+        String transcoded = transcode(uri);
+        if (!transcoded.equals(uri)) {
+          request.setUri(transcoded);
+        }
+        upgradeRequested = request.headers().contains(HttpHeaderNames.UPGRADE);
+      }
+      ctx.fireChannelRead(msg);
+      if (upgradeRequested) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        Http2ConnectionHandler http2Handler = pipeline.get(Http2ConnectionHandler.class);
+        if (http2Handler != null) {
+          // Upgraded to h2c, later requests arrive as HTTP/2 frames
+          installHttp2Transcoder(http2Handler);
+          pipeline.remove(this);
+        }
+      }
+    }
+  }
+
+  /** Rewrites the path of HTTP/2 requests. */
+  private static class Http2RequestTranscoder extends Http2FrameListenerDecorator {
+    Http2RequestTranscoder(Http2FrameListener listener) {
+      super(listener);
+    }
+
+    @Override
+    public void onHeadersRead(
+        ChannelHandlerContext ctx,
+        int streamId,
+        Http2Headers headers,
+        int padding,
+        boolean endStream)
+        throws Http2Exception {
+      transcodePath(headers);
+      super.onHeadersRead(ctx, streamId, headers, padding, endStream);
+    }
+
+    @Override
+    public void onHeadersRead(
+        ChannelHandlerContext ctx,
+        int streamId,
+        Http2Headers headers,
+        int streamDependency,
+        short weight,
+        boolean exclusive,
+        int padding,
+        boolean endStream)
+        throws Http2Exception {
+      transcodePath(headers);
+      super.onHeadersRead(
+          ctx, streamId, headers, streamDependency, weight, exclusive, padding, endStream);
+    }
+
+    private static void transcodePath(Http2Headers headers) {
+      CharSequence path = headers.path();
+      if (path == null) {
+        return;
+      }
+      String uri = path.toString();
+      String transcoded = transcode(uri);
+      if (!transcoded.equals(uri)) {
+        headers.path(transcoded);
+      }
+    }
+  }
+}
@@ -4,11 +4,18 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.server.Server;
 import com.linecorp.armeria.server.ServerBuilder;
 import com.linecorp.armeria.server.annotation.JacksonRequestConverterFunction;
 import com.linecorp.armeria.server.annotation.JacksonResponseConverterFunction;
 import com.linecorp.armeria.server.docs.DocService;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.unitycatalog.server.persist.StoragePurgeScheduler;
+import io.unitycatalog.server.persist.utils.S3ClientRegistry;
+import io.unitycatalog.server.service.AdminService;
 import io.unitycatalog.server.service.CatalogService;
 import io.unitycatalog.server.service.FunctionService;
 import io.unitycatalog.server.service.IcebergRestCatalogService;
@@ -17,12 +24,14 @@ import io.unitycatalog.server.service.TableService;
 import io.unitycatalog.server.service.TemporaryTableCredentialsService;
 import io.unitycatalog.server.service.TemporaryVolumeCredentialsService;
 import io.unitycatalog.server.service.VolumeService;
+import io.unitycatalog.server.service.iceberg.CredentialVendor;
 import io.unitycatalog.server.service.iceberg.FileIOFactory;
+import io.unitycatalog.server.service.iceberg.MetadataIOExecutor;
 import io.unitycatalog.server.service.iceberg.MetadataService;
+import io.unitycatalog.server.service.iceberg.TableMetricsStore;
+import io.unitycatalog.server.utils.BlockingTaskExecutors;
 import io.unitycatalog.server.utils.RESTObjectMapper;
 import io.unitycatalog.server.utils.VersionUtils;
-import io.vertx.core.Verticle;
-import io.vertx.core.Vertx;
 import org.apache.commons.cli.*;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.slf4j.Logger;
@@ -37,6 +46,11 @@ public class UnityCatalogServer {
   }
 
   Server server;
+  private final StoragePurgeScheduler storagePurgeScheduler = new StoragePurgeScheduler();
+  private final FileIOFactory fileIOFactory = new FileIOFactory();
+  private final MetadataIOExecutor metadataIOExecutor = new MetadataIOExecutor();
+  private final PrometheusMeterRegistry meterRegistry =
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
   private static final String basePath = "/api/2.1/unity-catalog/";
 
   public UnityCatalogServer() {
@@ -45,7 +59,16 @@ public class UnityCatalogServer {
 
   public UnityCatalogServer(int port) {
     ServerBuilder sb = Server.builder().serviceUnder("/docs", new DocService()).http(port);
+    // Keep database and storage calls of @Blocking services off the event loops
+    sb.blockingTaskExecutor(BlockingTaskExecutors.fromServerProperties(), true);
+    Metrics.addRegistry(meterRegistry);
+    sb.meterRegistry(meterRegistry);
+    sb.service(
+        "/metrics",
+        (ctx, req) -> HttpResponse.of(MediaType.PLAIN_TEXT_UTF_8, meterRegistry.scrape()));
     addServices(sb);
+    // Translate %1F-encoded names in-process before Armeria validates the request target
+    sb.childChannelPipelineCustomizer(URLTranscoder::install);
 
     server = sb.build();
   }
@@ -83,12 +106,16 @@ public class UnityCatalogServer {
         new JacksonRequestConverterFunction(icebergMapper);
     JacksonResponseConverterFunction icebergResponseConverter =
         new JacksonResponseConverterFunction(icebergMapper);
-    MetadataService metadataService = new MetadataService(new FileIOFactory());
+    MetadataService metadataService = new MetadataService(fileIOFactory, metadataIOExecutor);
+    TableMetricsStore tableMetricsStore = new TableMetricsStore();
     sb.annotatedService(
         basePath + "iceberg",
-        new IcebergRestCatalogService(catalogService, schemaService, tableService, metadataService),
+        new IcebergRestCatalogService(metadataService, tableMetricsStore, new CredentialVendor()),
         icebergRequestConverter,
         icebergResponseConverter);
+
+    // Operational endpoints
+    sb.annotatedService("/admin", new AdminService(tableMetricsStore));
   }
 
   public static void main(String[] args) {
@@ -116,22 +143,25 @@ public class UnityCatalogServer {
       return;
     }
     // Start Unity Catalog server
-    UnityCatalogServer unityCatalogServer = new UnityCatalogServer(port + 1);
+    UnityCatalogServer unityCatalogServer = new UnityCatalogServer(port);
     unityCatalogServer.printArt();
     unityCatalogServer.start();
-    // Start URL transcoder
-    Vertx vertx = Vertx.vertx();
-    Verticle transcodeVerticle = new URLTranscoderVerticle(port, port + 1);
-    vertx.deployVerticle(transcodeVerticle);
   }
 
   public void start() {
     LOGGER.info("Starting server...");
     server.start().join();
+    storagePurgeScheduler.start();
   }
 
   public void stop() {
     server.stop().join();
+    // Close the storage clients only once the purges and reads that use them are done
+    storagePurgeScheduler.stop();
+    metadataIOExecutor.shutdown();
+    fileIOFactory.invalidateAll();
+    S3ClientRegistry.getInstance().invalidateAll();
+    Metrics.removeRegistry(meterRegistry);
     LOGGER.info("Server stopped.");
   }
 
@@ -9,6 +9,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 public class GlobalExceptionHandler implements ExceptionHandlerFunction {
   @Override
@@ -22,6 +23,10 @@ public class GlobalExceptionHandler implements ExceptionHandlerFunction {
               baseException.getErrorMessage(),
               baseException.getCause(),
               baseException.getMetadata()));
+    } else if (cause instanceof RejectedExecutionException) {
+      return HttpResponse.ofJson(
+          HttpStatus.SERVICE_UNAVAILABLE,
+          createErrorResponse(ErrorCode.UNAVAILABLE, cause.getMessage(), cause, new HashMap<>()));
     } else if (cause instanceof RuntimeException) {
       return HttpResponse.ofJson(
           HttpStatus.INTERNAL_SERVER_ERROR,
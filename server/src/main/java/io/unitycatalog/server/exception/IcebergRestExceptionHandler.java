@@ -7,6 +7,8 @@ import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.armeria.server.annotation.ExceptionHandlerFunction;
 import io.unitycatalog.server.utils.RESTObjectMapper;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import lombok.SneakyThrows;
 import org.apache.iceberg.exceptions.AlreadyExistsException;
 import org.apache.iceberg.exceptions.CommitFailedException;
@@ -31,6 +33,10 @@ public class IcebergRestExceptionHandler implements ExceptionHandlerFunction {
           || cause instanceof NamespaceNotEmptyException
           || cause instanceof CommitFailedException) {
         return createErrorResponse(HttpStatus.CONFLICT, cause);
+      } else if (cause instanceof RejectedExecutionException) {
+        return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, cause);
+      } else if (cause instanceof TimeoutException) {
+        return createErrorResponse(HttpStatus.GATEWAY_TIMEOUT, cause);
       } else if (cause instanceof IllegalArgumentException) {
         return createErrorResponse(HttpStatus.BAD_REQUEST, cause);
       } else {
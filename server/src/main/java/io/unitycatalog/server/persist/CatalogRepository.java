@@ -7,6 +7,7 @@ import io.unitycatalog.server.persist.dao.CatalogInfoDAO;
 import io.unitycatalog.server.persist.dao.PropertyDAO;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
 import io.unitycatalog.server.persist.utils.PagedListingHelper;
+import io.unitycatalog.server.persist.utils.PropertyBinding;
 import io.unitycatalog.server.persist.utils.RepositoryUtils;
 import io.unitycatalog.server.utils.Constants;
 import io.unitycatalog.server.utils.ValidationUtils;
@@ -14,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
@@ -24,6 +26,7 @@ import org.slf4j.LoggerFactory;
 public class CatalogRepository {
   private static final CatalogRepository INSTANCE = new CatalogRepository();
   private static final SchemaRepository SCHEMA_REPOSITORY = SchemaRepository.getInstance();
+  private static final NamespaceCache NAMESPACE_CACHE = NamespaceCache.getInstance();
   private static final Logger LOGGER = LoggerFactory.getLogger(CatalogRepository.class);
   private static final SessionFactory SESSION_FACTORY = HibernateUtils.getSessionFactory();
   private static final PagedListingHelper<CatalogInfoDAO> LISTING_HELPER =
@@ -57,6 +60,7 @@ public class CatalogRepository {
             .forEach(session::persist);
         session.persist(catalogInfoDAO);
         tx.commit();
+        NAMESPACE_CACHE.invalidateCatalog(catalogInfo.getName());
         LOGGER.info("Added catalog: {}", catalogInfo.getName());
         return catalogInfo;
       } catch (Exception e) {
@@ -96,11 +100,9 @@ public class CatalogRepository {
     String nextPageToken = LISTING_HELPER.getNextPageToken(catalogInfoDAOList, maxResults);
     List<CatalogInfo> result = new ArrayList<>();
     for (CatalogInfoDAO catalogInfoDAO : catalogInfoDAOList) {
-      CatalogInfo catalogInfo = catalogInfoDAO.toCatalogInfo();
-      RepositoryUtils.attachProperties(
-          catalogInfo, catalogInfo.getId(), Constants.CATALOG, session);
-      result.add(catalogInfo);
+      result.add(catalogInfoDAO.toCatalogInfo());
     }
+    RepositoryUtils.attachProperties(result, PropertyBinding.CATALOG, session);
     return new ListCatalogsResponse().catalogs(result).nextPageToken(nextPageToken);
   }
 
@@ -115,8 +117,7 @@ public class CatalogRepository {
         }
         tx.commit();
         CatalogInfo catalogInfo = catalogInfoDAO.toCatalogInfo();
-        return RepositoryUtils.attachProperties(
-            catalogInfo, catalogInfo.getId(), Constants.CATALOG, session);
+        return RepositoryUtils.attachProperties(catalogInfo, PropertyBinding.CATALOG, session);
       } catch (Exception e) {
         tx.rollback();
         throw e;
@@ -129,9 +130,24 @@ public class CatalogRepository {
         session.createQuery("FROM CatalogInfoDAO WHERE name = :value", CatalogInfoDAO.class);
     query.setParameter("value", name);
     query.setMaxResults(1);
+    query.setCacheable(true);
     return query.uniqueResult();
   }
 
+  /**
+   * Get the id of a catalog by name, served from the namespace cache when possible.
+   *
+   * @return The catalog id, or null if the catalog does not exist
+   */
+  public UUID getCatalogId(Session session, String name) {
+    return NAMESPACE_CACHE.getCatalogId(
+        name,
+        catalogName -> {
+          CatalogInfoDAO catalogInfoDAO = getCatalogDAO(session, catalogName);
+          return catalogInfoDAO != null ? catalogInfoDAO.getId() : null;
+        });
+  }
+
   public CatalogInfo updateCatalog(String name, UpdateCatalog updateCatalog) {
     if (updateCatalog.getNewName() != null) {
       ValidationUtils.validateSqlObjectName(updateCatalog.getNewName());
@@ -162,6 +178,7 @@ public class CatalogRepository {
         catalogInfoDAO.setUpdatedAt(new Date());
         session.merge(catalogInfoDAO);
         tx.commit();
+        NAMESPACE_CACHE.invalidateCatalog(name);
         return catalogInfoDAO.toCatalogInfo();
       } catch (Exception e) {
         tx.rollback();
@@ -172,6 +189,22 @@ public class CatalogRepository {
 
   public void deleteCatalog(String name, boolean force) {
     try (Session session = SESSION_FACTORY.openSession()) {
+      CatalogInfoDAO catalog = getCatalogDAO(session, name);
+      if (catalog == null) {
+        throw new BaseException(ErrorCode.NOT_FOUND, "Catalog not found: " + name);
+      }
+      List<UUID> schemaIds =
+          session
+              .createQuery("SELECT id FROM SchemaInfoDAO WHERE catalogId = :catalogId", UUID.class)
+              .setParameter("catalogId", catalog.getId())
+              .list();
+      if (!schemaIds.isEmpty()) {
+        if (!force) {
+          throw new BaseException(
+              ErrorCode.FAILED_PRECONDITION, "Cannot delete catalog with schemas: " + name);
+        }
+        schemaIds.forEach(schemaId -> SCHEMA_REPOSITORY.deleteChildrenInBatches(session, schemaId));
+      }
       Transaction tx = session.beginTransaction();
       try {
         CatalogInfoDAO catalogInfo = getCatalogDAO(session, name);
@@ -201,12 +234,13 @@ public class CatalogRepository {
                       Optional.empty(),
                       Optional.ofNullable(nextToken));
               for (SchemaInfo schemaInfo : listSchemasResponse.getSchemas()) {
+                // The children are gone, a child created since then fails the delete
                 SCHEMA_REPOSITORY.deleteSchema(
                     session,
                     catalogInfo.getId(),
                     catalogInfo.getName(),
                     schemaInfo.getName(),
-                    true);
+                    false);
               }
               nextToken = listSchemasResponse.getNextPageToken();
             } while (nextToken != null);
@@ -215,6 +249,7 @@ public class CatalogRepository {
               .forEach(session::remove);
           session.remove(catalogInfo);
           tx.commit();
+          NAMESPACE_CACHE.invalidateCatalog(catalogInfo.getName(), catalogInfo.getId());
           LOGGER.info("Deleted catalog: {}", catalogInfo.getName());
         } else {
           throw new BaseException(ErrorCode.NOT_FOUND, "Catalog not found: " + name);
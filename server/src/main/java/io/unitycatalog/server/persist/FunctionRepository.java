@@ -4,11 +4,10 @@ import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.model.*;
 import io.unitycatalog.server.persist.dao.FunctionInfoDAO;
-import io.unitycatalog.server.persist.dao.SchemaInfoDAO;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
 import io.unitycatalog.server.persist.utils.PagedListingHelper;
+import io.unitycatalog.server.persist.utils.PropertyBinding;
 import io.unitycatalog.server.persist.utils.RepositoryUtils;
-import io.unitycatalog.server.utils.Constants;
 import io.unitycatalog.server.utils.ValidationUtils;
 import java.util.ArrayList;
 import java.util.List;
@@ -77,16 +76,13 @@ public class FunctionRepository {
       try {
         String catalogName = createFunction.getCatalogName();
         String schemaName = createFunction.getSchemaName();
-        SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-        if (schemaInfo == null) {
-          throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + schemaName);
-        }
-        if (getFunctionDAO(session, catalogName, schemaName, createFunction.getName()) != null) {
+        UUID schemaId = getSchemaId(session, catalogName, schemaName);
+        if (getFunctionDAO(session, schemaId, createFunction.getName()) != null) {
           throw new BaseException(
               ErrorCode.ALREADY_EXISTS, "Function already exists: " + createFunction.getName());
         }
         FunctionInfoDAO dao = FunctionInfoDAO.from(functionInfo);
-        dao.setSchemaId(schemaInfo.getId());
+        dao.setSchemaId(schemaId);
         dao.getInputParams()
             .forEach(
                 p -> {
@@ -116,11 +112,11 @@ public class FunctionRepository {
   }
 
   public UUID getSchemaId(Session session, String catalogName, String schemaName) {
-    SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-    if (schemaInfo == null) {
+    UUID schemaId = SCHEMA_REPOSITORY.getSchemaId(session, catalogName, schemaName);
+    if (schemaId == null) {
       throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + schemaName);
     }
-    return schemaInfo.getId();
+    return schemaId;
   }
 
   /**
@@ -166,11 +162,10 @@ public class FunctionRepository {
     List<FunctionInfo> result = new ArrayList<>();
     for (FunctionInfoDAO functionInfoDAO : functionInfoDAOList) {
       FunctionInfo functionInfo = functionInfoDAO.toFunctionInfo();
-      RepositoryUtils.attachProperties(
-          functionInfo, functionInfo.getFunctionId(), Constants.FUNCTION, session);
       addNamespaceData(functionInfo, catalogName, schemaName);
       result.add(functionInfo);
     }
+    RepositoryUtils.attachProperties(result, PropertyBinding.FUNCTION, session);
     return new ListFunctionsResponse().functions(result).nextPageToken(nextPageToken);
   }
 
@@ -212,11 +207,8 @@ public class FunctionRepository {
 
   public FunctionInfoDAO getFunctionDAO(
       Session session, String catalogName, String schemaName, String functionName) {
-    SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-    if (schemaInfo == null) {
-      throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + schemaName);
-    }
-    return getFunctionDAO(session, schemaInfo.getId(), functionName);
+    return RepositoryUtils.findInSchemaByFullName(
+        session, FunctionInfoDAO.class, catalogName, schemaName, functionName);
   }
 
   public FunctionInfoDAO getFunctionDAO(Session session, UUID schemaId, String functionName) {
@@ -239,11 +231,7 @@ public class FunctionRepository {
           throw new BaseException(ErrorCode.INVALID_ARGUMENT, "Invalid function name: " + name);
         }
         String catalogName = parts[0], schemaName = parts[1], functionName = parts[2];
-        SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-        if (schemaInfo == null) {
-          throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + schemaName);
-        }
-        deleteFunction(session, schemaInfo.getId(), functionName);
+        deleteFunction(session, getSchemaId(session, catalogName, schemaName), functionName);
         tx.commit();
         LOGGER.info("Deleted function: {}", functionName);
       } catch (Exception e) {
@@ -260,4 +248,32 @@ public class FunctionRepository {
     }
     session.remove(functionInfoDAO);
   }
+
+  /**
+   * Delete up to {@code maxResults} functions of a schema, along with their parameters, with
+   * set-based statements.
+   *
+   * @return The number of deleted functions, less than {@code maxResults} once none are left
+   */
+  public int deleteFunctions(Session session, UUID schemaId, int maxResults) {
+    List<UUID> functionIds =
+        session
+            .createQuery("SELECT id FROM FunctionInfoDAO WHERE schemaId = :schemaId", UUID.class)
+            .setParameter("schemaId", schemaId)
+            .setMaxResults(maxResults)
+            .list();
+    if (functionIds.isEmpty()) {
+      return 0;
+    }
+    session
+        .createMutationQuery(
+            "DELETE FROM FunctionParameterInfoDAO WHERE function.id IN (:functionIds)")
+        .setParameterList("functionIds", functionIds)
+        .executeUpdate();
+    session
+        .createMutationQuery("DELETE FROM FunctionInfoDAO WHERE id IN (:functionIds)")
+        .setParameterList("functionIds", functionIds)
+        .executeUpdate();
+    return functionIds.size();
+  }
 }
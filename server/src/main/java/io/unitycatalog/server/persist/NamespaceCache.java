@@ -0,0 +1,119 @@
+package io.unitycatalog.server.persist;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Caches the ids of catalogs by name and of schemas by (catalog id, name), so that resolving a
+ * three-level name does not need a query per level. Only existing entities are cached. Entries are
+ * invalidated by the repositories after a create, rename or delete is committed.
+ *
+ * <p>Invalidation only reaches this server. Entries therefore expire {@code
+ * server.namespaceCache.expireAfterWriteSeconds} after they were loaded, which bounds how long a
+ * rename, drop or recreate on another server sharing the database resolves to a stale id here.
+ *
+ * <p>This sits in front of the Hibernate query cache that {@code getCatalogDAO} and {@code
+ * getSchemaDAO} go through. The query cache still costs a session, a lookup of the query and a
+ * lookup of the entity per level, and Hibernate drops every cached query of a table on any write
+ * to that table. The ids cached here are per name, are invalidated per name, and are what every
+ * three-level name lookup needs. The query cache remains for reads of the full entities.
+ *
+ * <p>Hit and miss counts are published as the {@code uc.namespace.catalogs} and {@code
+ * uc.namespace.schemas} cache meters.
+ */
+public class NamespaceCache {
+  private static final NamespaceCache INSTANCE =
+      new NamespaceCache(
+          Long.parseLong(getProperty("maxSize", "10000")),
+          Duration.ofSeconds(Long.parseLong(getProperty("expireAfterWriteSeconds", "30"))),
+          Ticker.systemTicker());
+
+  private final Cache<String, UUID> catalogIds;
+  private final Cache<SchemaKey, UUID> schemaIds;
+
+  NamespaceCache(long maxSize, Duration expireAfterWrite, Ticker ticker) {
+    catalogIds =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite)
+            .ticker(ticker)
+            .recordStats()
+            .build();
+    schemaIds =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite)
+            .ticker(ticker)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry, catalogIds, "uc.namespace.catalogs");
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry, schemaIds, "uc.namespace.schemas");
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return ServerPropertiesUtils.getInstance()
+        .getProperty("server.namespaceCache." + name, defaultValue);
+  }
+
+  public static NamespaceCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the id of a catalog, calling the loader on a cache miss.
+   *
+   * @return The catalog id, or null if the loader did not find the catalog
+   */
+  public UUID getCatalogId(String catalogName, Function<String, UUID> loader) {
+    return catalogIds.get(catalogName, loader);
+  }
+
+  /**
+   * Get the id of a schema, calling the loader on a cache miss.
+   *
+   * @return The schema id, or null if the loader did not find the schema
+   */
+  public UUID getSchemaId(UUID catalogId, String schemaName, Function<String, UUID> loader) {
+    return schemaIds.get(new SchemaKey(catalogId, schemaName), key -> loader.apply(key.name));
+  }
+
+  /** Forget a catalog name. Schemas of the catalog stay cached since they are keyed by id. */
+  public void invalidateCatalog(String catalogName) {
+    catalogIds.invalidate(catalogName);
+  }
+
+  /** Forget a deleted catalog together with all of its schemas. */
+  public void invalidateCatalog(String catalogName, UUID catalogId) {
+    catalogIds.invalidate(catalogName);
+    schemaIds.asMap().keySet().removeIf(key -> key.catalogId.equals(catalogId));
+  }
+
+  public void invalidateSchema(UUID catalogId, String schemaName) {
+    schemaIds.invalidate(new SchemaKey(catalogId, schemaName));
+  }
+
+  public CacheStats getCatalogStats() {
+    return catalogIds.stats();
+  }
+
+  public CacheStats getSchemaStats() {
+    return schemaIds.stats();
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class SchemaKey {
+    private final UUID catalogId;
+    private final String name;
+  }
+}
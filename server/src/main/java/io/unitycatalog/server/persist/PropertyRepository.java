@@ -1,8 +1,12 @@
 package io.unitycatalog.server.persist;
 
 import io.unitycatalog.server.persist.dao.PropertyDAO;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
@@ -20,4 +24,45 @@ public class PropertyRepository {
     query.setParameter("entityType", entityType);
     return query.list();
   }
+
+  /**
+   * Get the properties of several entities of the same type with a single query.
+   *
+   * @param session The Hibernate session
+   * @param entityIds The ids of the entities, e.g. one page of a listing
+   * @param entityType The type of the entities
+   * @return The properties grouped by entity id. Entities without properties have no entry.
+   */
+  public static Map<UUID, List<PropertyDAO>> findProperties(
+      Session session, Collection<UUID> entityIds, String entityType) {
+    if (entityIds.isEmpty()) {
+      return new HashMap<>();
+    }
+    LOGGER.debug("Getting properties for " + entityIds.size() + " " + entityType + " entities");
+    String hql =
+        "FROM PropertyDAO p WHERE p.entityId IN (:entityIds) and p.entityType = :entityType";
+    Query<PropertyDAO> query = session.createQuery(hql, PropertyDAO.class);
+    query.setParameterList("entityIds", entityIds);
+    query.setParameter("entityType", entityType);
+    return query.list().stream().collect(Collectors.groupingBy(PropertyDAO::getEntityId));
+  }
+
+  /**
+   * Delete the properties of several entities of the same type with a single statement.
+   *
+   * @return The number of deleted properties
+   */
+  public static int deleteProperties(
+      Session session, Collection<UUID> entityIds, String entityType) {
+    if (entityIds.isEmpty()) {
+      return 0;
+    }
+    String hql =
+        "DELETE FROM PropertyDAO p WHERE p.entityId IN (:entityIds) and p.entityType = :entityType";
+    return session
+        .createMutationQuery(hql)
+        .setParameterList("entityIds", entityIds)
+        .setParameter("entityType", entityType)
+        .executeUpdate();
+  }
 }
@@ -3,27 +3,37 @@ package io.unitycatalog.server.persist;
 import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.model.*;
-import io.unitycatalog.server.persist.dao.CatalogInfoDAO;
 import io.unitycatalog.server.persist.dao.PropertyDAO;
 import io.unitycatalog.server.persist.dao.SchemaInfoDAO;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
 import io.unitycatalog.server.persist.utils.PagedListingHelper;
+import io.unitycatalog.server.persist.utils.PropertyBinding;
 import io.unitycatalog.server.persist.utils.RepositoryUtils;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
 import io.unitycatalog.server.utils.Constants;
 import io.unitycatalog.server.utils.ValidationUtils;
 import java.util.*;
+import java.util.function.ToIntFunction;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SchemaRepository {
   public static final SchemaRepository INSTANCE = new SchemaRepository();
   public static final CatalogRepository CATALOG_REPOSITORY = CatalogRepository.getInstance();
+  private static final NamespaceCache NAMESPACE_CACHE = NamespaceCache.getInstance();
   private static final TableRepository TABLE_REPOSITORY = TableRepository.getInstance();
   private static final VolumeRepository VOLUME_REPOSITORY = VolumeRepository.getInstance();
   private static final FunctionRepository FUNCTION_REPOSITORY = FunctionRepository.getInstance();
   private static final SessionFactory SESSION_FACTORY = HibernateUtils.getSessionFactory();
+  private static final Logger LOGGER = LoggerFactory.getLogger(SchemaRepository.class);
+  private static final int DELETE_BATCH_SIZE =
+      Integer.parseInt(
+          ServerPropertiesUtils.getInstance()
+              .getProperty("server.cascadeDelete.batchSize", "1000"));
   private static final PagedListingHelper<SchemaInfoDAO> LISTING_HELPER =
       new PagedListingHelper<>(SchemaInfoDAO.class);
 
@@ -38,12 +48,11 @@ public class SchemaRepository {
     try (Session session = SESSION_FACTORY.openSession()) {
       Transaction tx = session.beginTransaction();
       try {
-        if (getSchemaDAO(session, createSchema.getCatalogName(), createSchema.getName()) != null) {
+        UUID catalogId = getCatalogId(session, createSchema.getCatalogName());
+        if (getSchemaDAO(session, catalogId, createSchema.getName()) != null) {
           throw new BaseException(
               ErrorCode.ALREADY_EXISTS, "Schema already exists: " + createSchema.getName());
         }
-        CatalogInfoDAO catalogDAO =
-            CATALOG_REPOSITORY.getCatalogDAO(session, createSchema.getCatalogName());
         SchemaInfo schemaInfo =
             new SchemaInfo()
                 .schemaId(UUID.randomUUID().toString())
@@ -53,11 +62,12 @@ public class SchemaRepository {
                 .createdAt(System.currentTimeMillis())
                 .properties(createSchema.getProperties());
         SchemaInfoDAO schemaInfoDAO = SchemaInfoDAO.from(schemaInfo);
-        schemaInfoDAO.setCatalogId(catalogDAO.getId());
+        schemaInfoDAO.setCatalogId(catalogId);
         PropertyDAO.from(schemaInfo.getProperties(), schemaInfoDAO.getId(), Constants.SCHEMA)
             .forEach(session::persist);
         session.persist(schemaInfoDAO);
         tx.commit();
+        NAMESPACE_CACHE.invalidateSchema(catalogId, createSchema.getName());
         addNamespaceData(schemaInfo, createSchema.getCatalogName());
         return schemaInfo;
       } catch (Exception e) {
@@ -87,15 +97,12 @@ public class SchemaRepository {
     query.setParameter("name", schemaName);
     query.setParameter("catalogId", catalogId);
     query.setMaxResults(1);
+    query.setCacheable(true);
     return query.uniqueResult();
   }
 
   public SchemaInfoDAO getSchemaDAO(Session session, String catalogName, String schemaName) {
-    CatalogInfoDAO catalog = CATALOG_REPOSITORY.getCatalogDAO(session, catalogName);
-    if (catalog == null) {
-      throw new BaseException(ErrorCode.NOT_FOUND, "Catalog not found: " + catalogName);
-    }
-    return getSchemaDAO(session, catalog.getId(), schemaName);
+    return getSchemaDAO(session, getCatalogId(session, catalogName), schemaName);
   }
 
   public SchemaInfoDAO getSchemaDAO(Session session, String fullName) {
@@ -104,11 +111,28 @@ public class SchemaRepository {
   }
 
   public UUID getCatalogId(Session session, String catalogName) {
-    CatalogInfoDAO catalogInfo = CATALOG_REPOSITORY.getCatalogDAO(session, catalogName);
-    if (catalogInfo == null) {
+    UUID catalogId = CATALOG_REPOSITORY.getCatalogId(session, catalogName);
+    if (catalogId == null) {
       throw new BaseException(ErrorCode.NOT_FOUND, "Catalog not found: " + catalogName);
     }
-    return catalogInfo.getId();
+    return catalogId;
+  }
+
+  /**
+   * Get the id of a schema by name, served from the namespace cache when possible.
+   *
+   * @return The schema id, or null if the schema does not exist
+   * @throws BaseException if the catalog does not exist
+   */
+  public UUID getSchemaId(Session session, String catalogName, String schemaName) {
+    UUID catalogId = getCatalogId(session, catalogName);
+    return NAMESPACE_CACHE.getSchemaId(
+        catalogId,
+        schemaName,
+        name -> {
+          SchemaInfoDAO schemaInfoDAO = getSchemaDAO(session, catalogId, name);
+          return schemaInfoDAO != null ? schemaInfoDAO.getId() : null;
+        });
   }
 
   /**
@@ -151,11 +175,10 @@ public class SchemaRepository {
     List<SchemaInfo> result = new ArrayList<>();
     for (SchemaInfoDAO schemaInfoDAO : schemaInfoDAOList) {
       SchemaInfo schemaInfo = schemaInfoDAO.toSchemaInfo();
-      RepositoryUtils.attachProperties(
-          schemaInfo, schemaInfo.getSchemaId(), Constants.SCHEMA, session);
       addNamespaceData(schemaInfo, catalogName);
       result.add(schemaInfo);
     }
+    RepositoryUtils.attachProperties(result, PropertyBinding.SCHEMA, session);
     return new ListSchemasResponse().schemas(result).nextPageToken(nextPageToken);
   }
 
@@ -171,8 +194,7 @@ public class SchemaRepository {
         }
         tx.commit();
         SchemaInfo schemaInfo = convertFromDAO(schemaInfoDAO, fullName);
-        return RepositoryUtils.attachProperties(
-            schemaInfo, schemaInfo.getSchemaId(), Constants.SCHEMA, session);
+        return RepositoryUtils.attachProperties(schemaInfo, PropertyBinding.SCHEMA, session);
       } catch (Exception e) {
         tx.rollback();
         throw e;
@@ -211,6 +233,7 @@ public class SchemaRepository {
         schemaInfo.setUpdatedAt(new Date());
         session.merge(schemaInfo);
         tx.commit();
+        NAMESPACE_CACHE.invalidateSchema(schemaInfo.getCatalogId(), fullName.split("\\.")[1]);
         return convertFromDAO(schemaInfo, fullName);
       } catch (Exception e) {
         tx.rollback();
@@ -225,14 +248,19 @@ public class SchemaRepository {
       if (namespace.length != 2) {
         throw new BaseException(ErrorCode.INVALID_ARGUMENT, "Invalid schema name: " + fullName);
       }
-      CatalogInfoDAO catalog = CATALOG_REPOSITORY.getCatalogDAO(session, namespace[0]);
-      if (catalog == null) {
-        throw new BaseException(ErrorCode.NOT_FOUND, "Catalog not found: " + namespace[0]);
+      UUID catalogId = getCatalogId(session, namespace[0]);
+      SchemaInfoDAO schemaInfo = getSchemaDAO(session, catalogId, namespace[1]);
+      if (schemaInfo == null) {
+        throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + fullName);
+      }
+      if (force) {
+        deleteChildrenInBatches(session, schemaInfo.getId());
       }
       Transaction tx = session.beginTransaction();
       try {
-        deleteSchema(session, catalog.getId(), namespace[0], namespace[1], force);
+        deleteSchema(session, catalogId, namespace[0], namespace[1], false);
         tx.commit();
+        NAMESPACE_CACHE.invalidateSchema(catalogId, namespace[1]);
       } catch (Exception e) {
         tx.rollback();
         throw e;
@@ -240,6 +268,49 @@ public class SchemaRepository {
     }
   }
 
+  /**
+   * Delete the tables, volumes and functions of a schema in transactions of at most {@code
+   * server.cascadeDelete.batchSize} entities each, so that force-deleting a large schema does not
+   * run as one huge transaction. The caller deletes the schema itself without force afterwards,
+   * so a child created in the meantime fails the delete instead of being deleted unchecked.
+   */
+  public void deleteChildrenInBatches(Session session, UUID schemaId) {
+    long tables =
+        deleteInBatches(
+            session, s -> TABLE_REPOSITORY.deleteTables(s, schemaId, DELETE_BATCH_SIZE));
+    long volumes =
+        deleteInBatches(
+            session, s -> VOLUME_REPOSITORY.deleteVolumes(s, schemaId, DELETE_BATCH_SIZE));
+    long functions =
+        deleteInBatches(
+            session, s -> FUNCTION_REPOSITORY.deleteFunctions(s, schemaId, DELETE_BATCH_SIZE));
+    LOGGER.info(
+        "Deleted {} tables, {} volumes and {} functions of schema {}",
+        tables,
+        volumes,
+        functions,
+        schemaId);
+  }
+
+  private static long deleteInBatches(Session session, ToIntFunction<Session> deleteBatch) {
+    long total = 0;
+    int deleted;
+    do {
+      Transaction tx = session.beginTransaction();
+      try {
+        deleted = deleteBatch.applyAsInt(session);
+        tx.commit();
+      } catch (RuntimeException e) {
+        tx.rollback();
+        throw e;
+      }
+      // Nothing of a committed batch is needed anymore
+      session.clear();
+      total += deleted;
+    } while (deleted == DELETE_BATCH_SIZE);
+    return total;
+  }
+
   public void processChildTables(
       Session session, UUID schemaId, String catalogName, String schemaName, boolean force) {
     // first check if there are any child tables
@@ -259,23 +330,10 @@ public class SchemaRepository {
       if (!force) {
         throw new BaseException(ErrorCode.FAILED_PRECONDITION, "Cannot delete schema with tables");
       }
-      String nextToken = null;
+      int deleted;
       do {
-        ListTablesResponse listTablesResponse =
-            TABLE_REPOSITORY.listTables(
-                session,
-                schemaId,
-                catalogName,
-                schemaName,
-                Optional.empty(),
-                Optional.ofNullable(nextToken),
-                true,
-                true);
-        for (TableInfo tableInfo : listTablesResponse.getTables()) {
-          TABLE_REPOSITORY.deleteTable(session, schemaId, tableInfo.getName());
-        }
-        nextToken = listTablesResponse.getNextPageToken();
-      } while (nextToken != null);
+        deleted = TABLE_REPOSITORY.deleteTables(session, schemaId, DELETE_BATCH_SIZE);
+      } while (deleted == DELETE_BATCH_SIZE);
     }
   }
 
@@ -291,21 +349,10 @@ public class SchemaRepository {
       if (!force) {
         throw new BaseException(ErrorCode.FAILED_PRECONDITION, "Cannot delete schema with volumes");
       }
-      String nextToken = null;
+      int deleted;
       do {
-        ListVolumesResponseContent listVolumesResponse =
-            VOLUME_REPOSITORY.listVolumes(
-                session,
-                schemaId,
-                catalogName,
-                schemaName,
-                Optional.empty(),
-                Optional.ofNullable(nextToken));
-        for (VolumeInfo volumeInfo : listVolumesResponse.getVolumes()) {
-          VOLUME_REPOSITORY.deleteVolume(session, schemaId, volumeInfo.getName());
-        }
-        nextToken = listVolumesResponse.getNextPageToken();
-      } while (nextToken != null);
+        deleted = VOLUME_REPOSITORY.deleteVolumes(session, schemaId, DELETE_BATCH_SIZE);
+      } while (deleted == DELETE_BATCH_SIZE);
     }
   }
 
@@ -322,21 +369,10 @@ public class SchemaRepository {
         throw new BaseException(
             ErrorCode.FAILED_PRECONDITION, "Cannot delete schema with functions");
       }
-      String nextToken = null;
+      int deleted;
       do {
-        ListFunctionsResponse listFunctionsResponse =
-            FUNCTION_REPOSITORY.listFunctions(
-                session,
-                schemaId,
-                catalogName,
-                schemaName,
-                Optional.empty(),
-                Optional.ofNullable(nextToken));
-        for (FunctionInfo functionInfo : listFunctionsResponse.getFunctions()) {
-          FUNCTION_REPOSITORY.deleteFunction(session, schemaId, functionInfo.getName());
-        }
-        nextToken = listFunctionsResponse.getNextPageToken();
-      } while (nextToken != null);
+        deleted = FUNCTION_REPOSITORY.deleteFunctions(session, schemaId, DELETE_BATCH_SIZE);
+      } while (deleted == DELETE_BATCH_SIZE);
     }
   }
 
@@ -0,0 +1,249 @@
+package io.unitycatalog.server.persist;
+
+import io.unitycatalog.server.persist.dao.StoragePurgeDAO;
+import io.unitycatalog.server.persist.utils.HibernateUtils;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tombstones of the storage of deleted managed tables and volumes that is yet to be purged. */
+public class StoragePurgeRepository {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StoragePurgeRepository.class);
+  private static final StoragePurgeRepository INSTANCE = new StoragePurgeRepository();
+  private static final SessionFactory SESSION_FACTORY = HibernateUtils.getSessionFactory();
+
+  private static final int MAX_ERROR_LENGTH = 2048;
+
+  private StoragePurgeRepository() {}
+
+  public static StoragePurgeRepository getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Schedule the storage of an entity to be purged. Called in the transaction that deletes the
+   * entity, so that the storage is purged if and only if the deletion is committed.
+   */
+  public void schedulePurge(
+      Session session, UUID entityId, String entityType, String storageLocation) {
+    Date now = new Date();
+    session.persist(
+        StoragePurgeDAO.builder()
+            .entityId(entityId)
+            .entityType(entityType)
+            .storageLocation(storageLocation)
+            .status(StoragePurgeDAO.PENDING)
+            .attempts(0)
+            .createdAt(now)
+            .nextAttemptAt(now)
+            .build());
+    LOGGER.debug("Scheduled purge of {} storage: {}", entityType, storageLocation);
+  }
+
+  /**
+   * Get the purges that are due, the ones due first first: pending purges whose next attempt is
+   * due, and running purges whose lease has expired because their server went away.
+   */
+  public List<StoragePurgeDAO> findDuePurges(int maxResults) {
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      return session
+          .createQuery(
+              "FROM StoragePurgeDAO WHERE status IN (:statuses) AND nextAttemptAt <= :now "
+                  + "ORDER BY nextAttemptAt",
+              StoragePurgeDAO.class)
+          .setParameterList("statuses", List.of(StoragePurgeDAO.PENDING, StoragePurgeDAO.RUNNING))
+          .setParameter("now", new Date())
+          .setMaxResults(maxResults)
+          .list();
+    }
+  }
+
+  /**
+   * Claim a due purge for this server until the lease expires. The claim only succeeds if the
+   * tombstone is unchanged since it was read, so of the servers sharing the database exactly one
+   * gets to run a purge.
+   *
+   * @return Whether the purge was claimed. If so, its status and lease are updated to match the
+   *     database.
+   */
+  public boolean claimPurge(StoragePurgeDAO purge, Date leaseExpiresAt) {
+    int[] updated = new int[1];
+    inTransaction(
+        session ->
+            updated[0] =
+                session
+                    .createMutationQuery(
+                        "UPDATE StoragePurgeDAO SET status = :running, nextAttemptAt = :lease "
+                            + "WHERE id = :id AND status = :status AND attempts = :attempts "
+                            + "AND nextAttemptAt = :nextAttemptAt")
+                    .setParameter("running", StoragePurgeDAO.RUNNING)
+                    .setParameter("lease", leaseExpiresAt)
+                    .setParameter("id", purge.getId())
+                    .setParameter("status", purge.getStatus())
+                    .setParameter("attempts", purge.getAttempts())
+                    .setParameter("nextAttemptAt", purge.getNextAttemptAt())
+                    .executeUpdate());
+    if (updated[0] != 1) {
+      return false;
+    }
+    purge.setStatus(StoragePurgeDAO.RUNNING);
+    purge.setNextAttemptAt(leaseExpiresAt);
+    return true;
+  }
+
+  /**
+   * Whether a live table or volume uses the location or a location under it. Managed locations are
+   * derived from names, so an entity recreated under the name of a deleted one gets its location.
+   */
+  public boolean isLocationInUse(String storageLocation) {
+    String location =
+        storageLocation.endsWith("/")
+            ? storageLocation.substring(0, storageLocation.length() - 1)
+            : storageLocation;
+    String nested = escapeLike(location) + "/%";
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      return session
+                  .createQuery(
+                      "SELECT COUNT(*) FROM TableInfoDAO WHERE url IN (:location, :directory) "
+                          + "OR url LIKE :nested ESCAPE '\\'",
+                      Long.class)
+                  .setParameter("location", location)
+                  .setParameter("directory", location + "/")
+                  .setParameter("nested", nested)
+                  .getSingleResult()
+              > 0
+          || session
+                  .createQuery(
+                      "SELECT COUNT(*) FROM VolumeInfoDAO "
+                          + "WHERE storageLocation IN (:location, :directory) "
+                          + "OR storageLocation LIKE :nested ESCAPE '\\'",
+                      Long.class)
+                  .setParameter("location", location)
+                  .setParameter("directory", location + "/")
+                  .setParameter("nested", nested)
+                  .getSingleResult()
+              > 0;
+    }
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  /**
+   * List purges, the oldest first.
+   *
+   * @param status Only list purges with this status
+   */
+  public List<StoragePurgeDAO> listPurges(Optional<String> status, int maxResults) {
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      String hql =
+          status.isPresent()
+              ? "FROM StoragePurgeDAO WHERE status = :status ORDER BY createdAt"
+              : "FROM StoragePurgeDAO ORDER BY createdAt";
+      Query<StoragePurgeDAO> query =
+          session.createQuery(hql, StoragePurgeDAO.class).setMaxResults(maxResults);
+      status.ifPresent(s -> query.setParameter("status", s));
+      return query.list();
+    }
+  }
+
+  /** Count the purges by status. */
+  public Map<String, Long> countPurges() {
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      return session
+          .createQuery(
+              "SELECT status, COUNT(*) FROM StoragePurgeDAO GROUP BY status", Object[].class)
+          .list()
+          .stream()
+          .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+    }
+  }
+
+  /**
+   * Remove the tombstone of a purge that completed.
+   *
+   * @param purge The purge as claimed by this server
+   * @return Whether this server still held the claim
+   */
+  public boolean completePurge(StoragePurgeDAO purge) {
+    int[] deleted = new int[1];
+    inTransaction(
+        session ->
+            deleted[0] =
+                session
+                    .createMutationQuery(
+                        "DELETE FROM StoragePurgeDAO WHERE id = :id AND status = :running "
+                            + "AND nextAttemptAt = :lease")
+                    .setParameter("id", purge.getId())
+                    .setParameter("running", StoragePurgeDAO.RUNNING)
+                    .setParameter("lease", purge.getNextAttemptAt())
+                    .executeUpdate());
+    return deleted[0] == 1;
+  }
+
+  /**
+   * Record a failed attempt of a purge.
+   *
+   * @param purge The purge as claimed by this server
+   * @param nextAttemptAt When to try again, or empty to give up
+   * @return Whether this server still held the claim
+   */
+  public boolean failPurge(StoragePurgeDAO purge, String error, Optional<Date> nextAttemptAt) {
+    int[] updated = new int[1];
+    inTransaction(
+        session ->
+            updated[0] =
+                session
+                    .createMutationQuery(
+                        "UPDATE StoragePurgeDAO SET status = :status, attempts = attempts + 1, "
+                            + "lastError = :error, nextAttemptAt = :nextAttemptAt "
+                            + "WHERE id = :id AND status = :running AND nextAttemptAt = :lease")
+                    .setParameter(
+                        "status",
+                        nextAttemptAt.isPresent()
+                            ? StoragePurgeDAO.PENDING
+                            : StoragePurgeDAO.FAILED)
+                    .setParameter(
+                        "error",
+                        error != null && error.length() > MAX_ERROR_LENGTH
+                            ? error.substring(0, MAX_ERROR_LENGTH)
+                            : error)
+                    // A given up purge keeps its lease time, it is never due again
+                    .setParameter("nextAttemptAt", nextAttemptAt.orElse(purge.getNextAttemptAt()))
+                    .setParameter("id", purge.getId())
+                    .setParameter("running", StoragePurgeDAO.RUNNING)
+                    .setParameter("lease", purge.getNextAttemptAt())
+                    .executeUpdate());
+    return updated[0] == 1;
+  }
+
+  private void inTransaction(Consumer<Session> work) {
+    try (Session session = SESSION_FACTORY.openSession()) {
+      Transaction tx = session.beginTransaction();
+      try {
+        work.accept(session);
+        tx.commit();
+      } catch (RuntimeException e) {
+        if (tx.getStatus().canRollback()) {
+          tx.rollback();
+        }
+        throw e;
+      }
+    }
+  }
+}
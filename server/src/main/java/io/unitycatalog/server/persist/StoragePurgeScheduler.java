@@ -0,0 +1,218 @@
+package io.unitycatalog.server.persist;
+
+import com.linecorp.armeria.common.util.ThreadFactories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.persist.dao.StoragePurgeDAO;
+import io.unitycatalog.server.persist.utils.FileUtils;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Purges the storage of deleted managed tables and volumes in the background. Every {@code
+ * server.storagePurge.intervalSeconds} the due tombstones are picked up and their directories
+ * deleted by {@code server.storagePurge.concurrency} threads. Failed purges are retried with
+ * exponential backoff, capped at an hour, and given up after {@code
+ * server.storagePurge.maxAttempts} attempts. Given up purges stay listed as failed.
+ *
+ * <p>Servers sharing the database claim a purge before running it, and hold the claim for {@code
+ * server.storagePurge.leaseSeconds}. A purge whose server went away is picked up again once its
+ * lease has expired. Managed locations are derived from names, so a purge whose location is used by
+ * a table or volume created since is given up rather than deleting the new entity's storage.
+ */
+public class StoragePurgeScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StoragePurgeScheduler.class);
+  private static final StoragePurgeRepository STORAGE_PURGE_REPOSITORY =
+      StoragePurgeRepository.getInstance();
+
+  private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+  private static final long STOP_TIMEOUT_SECONDS = 30;
+
+  private final Duration interval;
+  private final int concurrency;
+  private final int maxAttempts;
+  private final Duration lease;
+  // Purges being worked on, so that a slow one is not picked up again
+  private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+  private final Counter purged;
+  private final Counter failed;
+  private ScheduledExecutorService scheduler;
+  private ExecutorService workers;
+
+  public StoragePurgeScheduler() {
+    this(
+        Duration.ofSeconds(Long.parseLong(getProperty("intervalSeconds", "10"))),
+        Integer.parseInt(getProperty("concurrency", "4")),
+        Integer.parseInt(getProperty("maxAttempts", "10")),
+        Duration.ofSeconds(Long.parseLong(getProperty("leaseSeconds", "1800"))));
+  }
+
+  StoragePurgeScheduler(Duration interval, int concurrency, int maxAttempts, Duration lease) {
+    this.interval = interval;
+    this.concurrency = concurrency;
+    this.maxAttempts = maxAttempts;
+    this.lease = lease;
+    this.purged =
+        Counter.builder("uc.storage.purges")
+            .tag("result", "purged")
+            .description("Storage purges of deleted managed tables and volumes")
+            .register(Metrics.globalRegistry);
+    this.failed =
+        Counter.builder("uc.storage.purges")
+            .tag("result", "failed")
+            .description("Storage purges of deleted managed tables and volumes")
+            .register(Metrics.globalRegistry);
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return ServerPropertiesUtils.getInstance()
+        .getProperty("server.storagePurge." + name, defaultValue);
+  }
+
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadFactories.builder("uc-storage-purge-scheduler").daemon(true).build());
+    workers =
+        Executors.newFixedThreadPool(
+            concurrency, ThreadFactories.builder("uc-storage-purge").daemon(true).build());
+    scheduler.scheduleWithFixedDelay(
+        this::runDuePurges, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop picking up purges and wait for the running ones, so that the storage clients they use can
+   * be shut down afterwards. Purges still running after {@value #STOP_TIMEOUT_SECONDS} seconds are
+   * interrupted, and retried once the server is started again.
+   */
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        workers.shutdownNow();
+        workers.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    scheduler = null;
+    workers = null;
+  }
+
+  /** Pick up the due purges now instead of at the next interval. */
+  public synchronized void runNow() {
+    if (scheduler != null) {
+      scheduler.execute(this::runDuePurges);
+    }
+  }
+
+  private void runDuePurges() {
+    try {
+      // Fetch a few more than can run, some may still be running from the last round
+      for (StoragePurgeDAO purge : STORAGE_PURGE_REPOSITORY.findDuePurges(2 * concurrency)) {
+        if (running.add(purge.getId())) {
+          try {
+            workers.execute(() -> purge(purge));
+          } catch (RuntimeException e) {
+            running.remove(purge.getId());
+            throw e;
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      // Keep the schedule going, the purges are picked up again next time
+      LOGGER.warn("Failed to schedule storage purges", e);
+    }
+  }
+
+  void purge(StoragePurgeDAO purge) {
+    try {
+      if (!STORAGE_PURGE_REPOSITORY.claimPurge(purge, secondsFromNow(lease.toMillis()))) {
+        LOGGER.debug("Purge of {} was claimed by another server", purge.getStorageLocation());
+        return;
+      }
+      if (STORAGE_PURGE_REPOSITORY.isLocationInUse(purge.getStorageLocation())) {
+        failed.increment();
+        LOGGER.warn(
+            "Not purging storage of deleted {} {}, a live table or volume uses it: {}",
+            purge.getEntityType(),
+            purge.getEntityId(),
+            purge.getStorageLocation());
+        STORAGE_PURGE_REPOSITORY.failPurge(
+            purge, "Storage location is used by a live table or volume", Optional.empty());
+        return;
+      }
+      try {
+        FileUtils.deleteDirectory(purge.getStorageLocation());
+      } catch (BaseException e) {
+        // Nothing to purge if the directory is already gone
+        if (!(e.getCause() instanceof NoSuchFileException)) {
+          throw e;
+        }
+      }
+      if (!STORAGE_PURGE_REPOSITORY.completePurge(purge)) {
+        LOGGER.warn(
+            "Purged storage {} after the lease of this server expired",
+            purge.getStorageLocation());
+      }
+      purged.increment();
+      LOGGER.info(
+          "Purged storage of deleted {} {}: {}",
+          purge.getEntityType(),
+          purge.getEntityId(),
+          purge.getStorageLocation());
+    } catch (Exception e) {
+      failed.increment();
+      int attempts = purge.getAttempts() + 1;
+      Optional<Date> nextAttemptAt = Optional.empty();
+      if (attempts < maxAttempts) {
+        long backoffMillis =
+            Math.min(MAX_BACKOFF.toMillis(), interval.toMillis() << Math.min(attempts, 20));
+        nextAttemptAt = Optional.of(secondsFromNow(backoffMillis));
+      }
+      LOGGER.warn(
+          "Failed to purge storage {} (attempt {} of {})",
+          purge.getStorageLocation(),
+          attempts,
+          maxAttempts,
+          e);
+      try {
+        STORAGE_PURGE_REPOSITORY.failPurge(purge, e.toString(), nextAttemptAt);
+      } catch (RuntimeException updateError) {
+        LOGGER.warn("Failed to record failed purge of {}", purge.getStorageLocation(), updateError);
+      }
+    } finally {
+      running.remove(purge.getId());
+    }
+  }
+
+  /**
+   * A time at least the given delay from now, in whole seconds, so that it compares equal once
+   * stored in a timestamp column without fractional seconds.
+   */
+  private static Date secondsFromNow(long delayMillis) {
+    long seconds = (System.currentTimeMillis() + delayMillis + 999) / 1000;
+    return new Date(seconds * 1000);
+  }
+}
@@ -4,11 +4,11 @@ import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.model.*;
 import io.unitycatalog.server.persist.dao.PropertyDAO;
-import io.unitycatalog.server.persist.dao.SchemaInfoDAO;
 import io.unitycatalog.server.persist.dao.TableInfoDAO;
 import io.unitycatalog.server.persist.utils.FileUtils;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
 import io.unitycatalog.server.persist.utils.PagedListingHelper;
+import io.unitycatalog.server.persist.utils.PropertyBinding;
 import io.unitycatalog.server.persist.utils.RepositoryUtils;
 import io.unitycatalog.server.utils.Constants;
 import io.unitycatalog.server.utils.ValidationUtils;
@@ -78,8 +78,7 @@ public class TableRepository {
         tableInfo = tableInfoDAO.toTableInfo(true);
         tableInfo.setCatalogName(catalogName);
         tableInfo.setSchemaName(schemaName);
-        RepositoryUtils.attachProperties(
-            tableInfo, tableInfo.getTableId(), Constants.TABLE, session);
+        RepositoryUtils.attachProperties(tableInfo, PropertyBinding.TABLE, session);
         tx.commit();
         return tableInfo;
       } catch (Exception e) {
@@ -91,16 +90,53 @@ public class TableRepository {
     }
   }
 
+  /**
+   * Get the uniform Iceberg metadata location of a table. Only the location is read, with a single
+   * query, so columns and properties of the table are not loaded.
+   *
+   * @return The metadata location, or null if the table has no Iceberg metadata
+   */
   public String getTableUniformMetadataLocation(
-      Session session, String catalogName, String schemaName, String tableName) {
-    TableInfoDAO dao = findTable(session, catalogName, schemaName, tableName);
-    return dao.getUniformIcebergMetadataLocation();
+      String catalogName, String schemaName, String tableName) {
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      Transaction tx = session.beginTransaction();
+      try {
+        List<String> locations =
+            session
+                .createQuery(
+                    "SELECT t.uniformIcebergMetadataLocation"
+                        + " FROM TableInfoDAO t, SchemaInfoDAO s, CatalogInfoDAO c"
+                        + " WHERE t.schemaId = s.id AND s.catalogId = c.id"
+                        + " AND c.name = :catalogName AND s.name = :schemaName"
+                        + " AND t.name = :tableName",
+                    String.class)
+                .setParameter("catalogName", catalogName)
+                .setParameter("schemaName", schemaName)
+                .setParameter("tableName", tableName)
+                .setMaxResults(1)
+                .list();
+        if (locations.isEmpty()) {
+          RepositoryUtils.requireSchemaExists(session, catalogName, schemaName);
+          throw new BaseException(
+              ErrorCode.NOT_FOUND,
+              "Table not found: " + catalogName + "." + schemaName + "." + tableName);
+        }
+        tx.commit();
+        return locations.get(0);
+      } catch (Exception e) {
+        if (tx != null && tx.getStatus().canRollback()) {
+          tx.rollback();
+        }
+        throw e;
+      }
+    }
   }
 
   private TableInfoDAO findTable(
       Session session, String catalogName, String schemaName, String tableName) {
-    UUID schemaId = getSchemaId(session, catalogName, schemaName);
-    return findBySchemaIdAndName(session, schemaId, tableName);
+    return RepositoryUtils.findInSchemaByFullName(
+        session, TableInfoDAO.class, catalogName, schemaName, tableName);
   }
 
   public TableInfo createTable(CreateTable createTable) {
@@ -192,11 +228,11 @@ public class TableRepository {
   }
 
   public UUID getSchemaId(Session session, String catalogName, String schemaName) {
-    SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-    if (schemaInfo == null) {
+    UUID schemaId = SCHEMA_REPOSITORY.getSchemaId(session, catalogName, schemaName);
+    if (schemaId == null) {
       throw new BaseException(ErrorCode.NOT_FOUND, "Schema not found: " + schemaName);
     }
-    return schemaInfo.getId();
+    return schemaId;
   }
 
   /**
@@ -258,17 +294,63 @@ public class TableRepository {
     List<TableInfo> result = new ArrayList<>();
     for (TableInfoDAO tableInfoDAO : tableInfoDAOList) {
       TableInfo tableInfo = tableInfoDAO.toTableInfo(!omitColumns);
-      if (!omitProperties) {
-        RepositoryUtils.attachProperties(
-            tableInfo, tableInfo.getTableId(), Constants.TABLE, session);
-      }
       tableInfo.setCatalogName(catalogName);
       tableInfo.setSchemaName(schemaName);
       result.add(tableInfo);
     }
+    if (!omitProperties) {
+      RepositoryUtils.attachProperties(result, PropertyBinding.TABLE, session);
+    }
     return new ListTablesResponse().tables(result).nextPageToken(nextPageToken);
   }
 
+  /**
+   * Return a page of the tables in a schema that have Iceberg metadata, in ascending order of table
+   * name. Only the table names are read, with a single keyset-paginated query.
+   */
+  public ListTablesResponse listIcebergTables(
+      String catalogName,
+      String schemaName,
+      Optional<Integer> maxResults,
+      Optional<String> pageToken) {
+    if (maxResults.isPresent() && maxResults.get() < 0) {
+      throw new BaseException(
+          ErrorCode.INVALID_ARGUMENT, "maxResults must be greater than or equal to 0");
+    }
+    int pageSize = PagedListingHelper.getPageSize(maxResults);
+    try (Session session = SESSION_FACTORY.openSession()) {
+      session.setDefaultReadOnly(true);
+      Transaction tx = session.beginTransaction();
+      try {
+        UUID schemaId = getSchemaId(session, catalogName, schemaName);
+        String hql =
+            "SELECT t.name FROM TableInfoDAO t WHERE t.schemaId = :schemaId"
+                + " AND t.uniformIcebergMetadataLocation IS NOT NULL"
+                + (pageToken.isPresent() ? " AND t.name > :pageToken" : "")
+                + " ORDER BY t.name";
+        Query<String> query = session.createQuery(hql, String.class);
+        query.setParameter("schemaId", schemaId);
+        pageToken.ifPresent(token -> query.setParameter("pageToken", token));
+        query.setMaxResults(pageSize);
+        List<String> tableNames = query.list();
+        tx.commit();
+        List<TableInfo> tables = new ArrayList<>(tableNames.size());
+        for (String tableName : tableNames) {
+          tables.add(
+              new TableInfo().name(tableName).catalogName(catalogName).schemaName(schemaName));
+        }
+        String nextPageToken =
+            tableNames.size() < pageSize ? null : tableNames.get(tableNames.size() - 1);
+        return new ListTablesResponse().tables(tables).nextPageToken(nextPageToken);
+      } catch (Exception e) {
+        if (tx != null && tx.getStatus().canRollback()) {
+          tx.rollback();
+        }
+        throw e;
+      }
+    }
+  }
+
   public void deleteTable(String fullName) {
     try (Session session = SESSION_FACTORY.openSession()) {
       Transaction tx = session.beginTransaction();
@@ -298,14 +380,50 @@ public class TableRepository {
       throw new BaseException(ErrorCode.NOT_FOUND, "Table not found: " + tableName);
     }
     if (TableType.MANAGED.getValue().equals(tableInfoDAO.getType())) {
-      try {
-        FileUtils.deleteDirectory(tableInfoDAO.getUrl());
-      } catch (Throwable e) {
-        LOGGER.error("Error deleting table directory: {}", tableInfoDAO.getUrl(), e);
-      }
+      StoragePurgeRepository.getInstance()
+          .schedulePurge(session, tableInfoDAO.getId(), Constants.TABLE, tableInfoDAO.getUrl());
     }
     PropertyRepository.findProperties(session, tableInfoDAO.getId(), Constants.TABLE)
         .forEach(session::remove);
     session.remove(tableInfoDAO);
   }
+
+  /**
+   * Delete up to {@code maxResults} tables of a schema with set-based statements, along with their
+   * columns and properties. The storage of managed tables is scheduled to be purged.
+   *
+   * @return The number of deleted tables, less than {@code maxResults} once none are left
+   */
+  public int deleteTables(Session session, UUID schemaId, int maxResults) {
+    List<Object[]> tables =
+        session
+            .createQuery(
+                "SELECT id, type, url FROM TableInfoDAO WHERE schemaId = :schemaId",
+                Object[].class)
+            .setParameter("schemaId", schemaId)
+            .setMaxResults(maxResults)
+            .list();
+    if (tables.isEmpty()) {
+      return 0;
+    }
+    List<UUID> tableIds = new ArrayList<>(tables.size());
+    for (Object[] table : tables) {
+      UUID tableId = (UUID) table[0];
+      tableIds.add(tableId);
+      if (TableType.MANAGED.getValue().equals(table[1])) {
+        StoragePurgeRepository.getInstance()
+            .schedulePurge(session, tableId, Constants.TABLE, (String) table[2]);
+      }
+    }
+    session
+        .createMutationQuery("DELETE FROM ColumnInfoDAO WHERE table.id IN (:tableIds)")
+        .setParameterList("tableIds", tableIds)
+        .executeUpdate();
+    PropertyRepository.deleteProperties(session, tableIds, Constants.TABLE);
+    session
+        .createMutationQuery("DELETE FROM TableInfoDAO WHERE id IN (:tableIds)")
+        .setParameterList("tableIds", tableIds)
+        .executeUpdate();
+    return tableIds.size();
+  }
 }
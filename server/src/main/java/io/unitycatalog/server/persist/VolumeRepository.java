@@ -3,12 +3,14 @@ package io.unitycatalog.server.persist;
 import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.model.*;
-import io.unitycatalog.server.persist.dao.SchemaInfoDAO;
 import io.unitycatalog.server.persist.dao.VolumeInfoDAO;
-import io.unitycatalog.server.persist.utils.FileUtils;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.persist.utils.RepositoryUtils;
+import io.unitycatalog.server.utils.Constants;
 import io.unitycatalog.server.utils.ValidationUtils;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -62,10 +64,10 @@ public class VolumeRepository {
     try (Session session = SESSION_FACTORY.openSession()) {
       Transaction tx = session.beginTransaction();
       try {
-        SchemaInfoDAO schemaInfoDAO =
-            SCHEMA_REPOSITORY.getSchemaDAO(
+        UUID schemaId =
+            SCHEMA_REPOSITORY.getSchemaId(
                 session, createVolumeRequest.getCatalogName(), createVolumeRequest.getSchemaName());
-        if (schemaInfoDAO == null) {
+        if (schemaId == null) {
           throw new BaseException(
               ErrorCode.NOT_FOUND,
               "Schema not found: "
@@ -73,16 +75,11 @@ public class VolumeRepository {
                   + "."
                   + createVolumeRequest.getSchemaName());
         }
-        if (getVolumeDAO(
-                session,
-                createVolumeRequest.getCatalogName(),
-                createVolumeRequest.getSchemaName(),
-                createVolumeRequest.getName())
-            != null) {
+        if (getVolumeDAO(session, schemaId, createVolumeRequest.getName()) != null) {
           throw new BaseException(
               ErrorCode.ALREADY_EXISTS, "Volume already exists: " + volumeFullName);
         }
-        volumeInfoDAO.setSchemaId(schemaInfoDAO.getId());
+        volumeInfoDAO.setSchemaId(schemaId);
         session.persist(volumeInfoDAO);
         tx.commit();
         LOGGER.info("Added volume: {}", volumeInfo.getName());
@@ -116,12 +113,8 @@ public class VolumeRepository {
 
   public VolumeInfoDAO getVolumeDAO(
       Session session, String catalogName, String schemaName, String volumeName) {
-    SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-    if (schemaInfo == null) {
-      throw new BaseException(
-          ErrorCode.NOT_FOUND, "Schema not found: " + catalogName + "." + schemaName);
-    }
-    return getVolumeDAO(session, schemaInfo.getId(), volumeName);
+    return RepositoryUtils.findInSchemaByFullName(
+        session, VolumeInfoDAO.class, catalogName, schemaName, volumeName);
   }
 
   public VolumeInfoDAO getVolumeDAO(Session session, UUID schemaId, String volumeName) {
@@ -163,14 +156,13 @@ public class VolumeRepository {
       session.setDefaultReadOnly(true);
       Transaction tx = session.beginTransaction();
       try {
-        SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalogName, schemaName);
-        if (schemaInfo == null) {
+        UUID schemaId = SCHEMA_REPOSITORY.getSchemaId(session, catalogName, schemaName);
+        if (schemaId == null) {
           throw new BaseException(
               ErrorCode.NOT_FOUND, "Schema not found: " + catalogName + "." + schemaName);
         }
         ListVolumesResponseContent responseContent =
-            listVolumes(
-                session, schemaInfo.getId(), catalogName, schemaName, maxResults, pageToken);
+            listVolumes(session, schemaId, catalogName, schemaName, maxResults, pageToken);
         tx.commit();
         return responseContent;
       } catch (Exception e) {
@@ -265,12 +257,12 @@ public class VolumeRepository {
       String catalog = namespace[0], schema = namespace[1], volume = namespace[2];
       Transaction tx = session.beginTransaction();
       try {
-        SchemaInfoDAO schemaInfo = SCHEMA_REPOSITORY.getSchemaDAO(session, catalog, schema);
-        if (schemaInfo == null) {
+        UUID schemaId = SCHEMA_REPOSITORY.getSchemaId(session, catalog, schema);
+        if (schemaId == null) {
           throw new BaseException(
               ErrorCode.NOT_FOUND, "Schema not found: " + catalog + "." + schema);
         }
-        deleteVolume(session, schemaInfo.getId(), volume);
+        deleteVolume(session, schemaId, volume);
         tx.commit();
       } catch (Exception e) {
         tx.rollback();
@@ -285,13 +277,49 @@ public class VolumeRepository {
       throw new BaseException(ErrorCode.NOT_FOUND, "Volume not found: " + volumeName);
     }
     if (VolumeType.MANAGED.getValue().equals(volumeInfoDAO.getVolumeType())) {
-      try {
-        FileUtils.deleteDirectory(volumeInfoDAO.getStorageLocation());
-      } catch (Exception e) {
-        LOGGER.error("Error deleting volume directory", e);
-      }
+      StoragePurgeRepository.getInstance()
+          .schedulePurge(
+              session,
+              volumeInfoDAO.getId(),
+              Constants.VOLUME,
+              volumeInfoDAO.getStorageLocation());
     }
     session.remove(volumeInfoDAO);
     LOGGER.info("Deleted volume: {}", volumeInfoDAO.getName());
   }
+
+  /**
+   * Delete up to {@code maxResults} volumes of a schema with a set-based statement. The storage of
+   * managed volumes is scheduled to be purged.
+   *
+   * @return The number of deleted volumes, less than {@code maxResults} once none are left
+   */
+  public int deleteVolumes(Session session, UUID schemaId, int maxResults) {
+    List<Object[]> volumes =
+        session
+            .createQuery(
+                "SELECT id, volumeType, storageLocation FROM VolumeInfoDAO "
+                    + "WHERE schemaId = :schemaId",
+                Object[].class)
+            .setParameter("schemaId", schemaId)
+            .setMaxResults(maxResults)
+            .list();
+    if (volumes.isEmpty()) {
+      return 0;
+    }
+    List<UUID> volumeIds = new ArrayList<>(volumes.size());
+    for (Object[] volume : volumes) {
+      UUID volumeId = (UUID) volume[0];
+      volumeIds.add(volumeId);
+      if (VolumeType.MANAGED.getValue().equals(volume[1])) {
+        StoragePurgeRepository.getInstance()
+            .schedulePurge(session, volumeId, Constants.VOLUME, (String) volume[2]);
+      }
+    }
+    session
+        .createMutationQuery("DELETE FROM VolumeInfoDAO WHERE id IN (:volumeIds)")
+        .setParameterList("volumeIds", volumeIds)
+        .executeUpdate();
+    return volumeIds.size();
+  }
 }
@@ -0,0 +1,66 @@
+package io.unitycatalog.server.persist.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Date;
+import java.util.UUID;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+/**
+ * Tombstone of the storage of a deleted managed table or volume. It is written in the transaction
+ * that deletes the entity and removed once the storage has been purged. While a server purges the
+ * storage the tombstone is {@link #RUNNING}, and {@code next_attempt_at} is when the lease of that
+ * server expires.
+ */
+@Entity
+@Table(
+    name = "uc_storage_purges",
+    indexes = {@Index(name = "idx_status_next_attempt_at", columnList = "status,next_attempt_at")})
+// Lombok annotations
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Builder
+public class StoragePurgeDAO {
+  public static final String PENDING = "PENDING";
+  // Claimed by a server until its lease expires
+  public static final String RUNNING = "RUNNING";
+  // Gave up after too many attempts
+  public static final String FAILED = "FAILED";
+
+  @Id
+  @UuidGenerator
+  @Column(name = "id", updatable = false, nullable = false)
+  private UUID id;
+
+  @Column(name = "entity_id", nullable = false)
+  private UUID entityId;
+
+  @Column(name = "entity_type", nullable = false)
+  private String entityType;
+
+  @Column(name = "storage_location", nullable = false, length = 2048)
+  private String storageLocation;
+
+  @Column(name = "status", nullable = false)
+  private String status;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "last_error", length = 2048)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private Date createdAt;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private Date nextAttemptAt;
+}
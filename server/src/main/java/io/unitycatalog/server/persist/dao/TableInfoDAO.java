@@ -4,12 +4,14 @@ import io.unitycatalog.server.model.DataSourceFormat;
 import io.unitycatalog.server.model.TableInfo;
 import io.unitycatalog.server.model.TableType;
 import io.unitycatalog.server.persist.utils.FileUtils;
+import io.unitycatalog.server.persist.utils.PagedListingHelper;
 import jakarta.persistence.*;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.BatchSize;
 
 // Hibernate annotations
 @Entity
@@ -17,6 +19,7 @@ import lombok.experimental.SuperBuilder;
     name = "uc_tables",
     indexes = {
       @Index(name = "idx_name", columnList = "name"),
+      @Index(name = "idx_schema_id_name", columnList = "schema_id,name"),
     })
 // Lombok annotations
 @Getter
@@ -55,6 +58,8 @@ public class TableInfoDAO extends IdentifiableDAO {
       cascade = CascadeType.ALL,
       orphanRemoval = true,
       fetch = FetchType.LAZY)
+  // Initialize the columns of up to a full listing page of tables with one query
+  @BatchSize(size = PagedListingHelper.DEFAULT_PAGE_SIZE)
   private List<ColumnInfoDAO> columns;
 
   @Column(name = "uniform_iceberg_metadata_location", length = 65535)
@@ -1,11 +1,6 @@
 package io.unitycatalog.server.persist.utils;
 
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicSessionCredentials;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
-import com.amazonaws.services.s3.model.ListObjectsRequest;
-import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import io.unitycatalog.server.exception.BaseException;
@@ -13,12 +8,9 @@ import io.unitycatalog.server.exception.ErrorCode;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Comparator;
-import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,7 +77,7 @@ public class FileUtils {
     validateURI(directoryUri);
     if (directoryUri.getScheme() == null || directoryUri.getScheme().equals("file")) {
       try {
-        deleteLocalDirectory(Paths.get(directoryUri));
+        LocalDirectoryDeleter.getInstance().deleteDirectory(Paths.get(directoryUri));
       } catch (RuntimeException | IOException e) {
         throw new BaseException(ErrorCode.INTERNAL, "Failed to delete directory: " + path, e);
       }
@@ -97,39 +89,10 @@ public class FileUtils {
     }
   }
 
-  private static void deleteLocalDirectory(Path dirPath) throws IOException {
-    if (Files.exists(dirPath)) {
-      try (Stream<Path> walk = Files.walk(dirPath, FileVisitOption.FOLLOW_LINKS)) {
-        walk.sorted(Comparator.reverseOrder())
-            .forEach(
-                path -> {
-                  try {
-                    Files.delete(path);
-                  } catch (IOException e) {
-                    throw new RuntimeException("Failed to delete " + path, e);
-                  }
-                });
-      }
-    } else {
-      throw new IOException("Directory does not exist: " + dirPath);
-    }
-  }
-
   private static URI modifyS3Directory(URI parsedUri, boolean createOrDelete) {
     String bucketName = parsedUri.getHost();
     String path = parsedUri.getPath().substring(1); // Remove leading '/'
-    String accessKey = ServerPropertiesUtils.getInstance().getProperty("aws.s3.accessKey");
-    String secretKey = ServerPropertiesUtils.getInstance().getProperty("aws.s3.secretKey");
-    String sessionToken = ServerPropertiesUtils.getInstance().getProperty("aws.s3.sessionToken");
-    String region = ServerPropertiesUtils.getInstance().getProperty("aws.region");
-
-    BasicSessionCredentials sessionCredentials =
-        new BasicSessionCredentials(accessKey, secretKey, sessionToken);
-    AmazonS3 s3Client =
-        AmazonS3ClientBuilder.standard()
-            .withCredentials(new AWSStaticCredentialsProvider(sessionCredentials))
-            .withRegion(region)
-            .build();
+    AmazonS3 s3Client = S3ClientRegistry.getInstance().getClient();
 
     if (createOrDelete) {
 
@@ -154,18 +117,11 @@ public class FileUtils {
         throw new BaseException(ErrorCode.INTERNAL, "Failed to create directory: " + path, e);
       }
     } else {
-      ObjectListing listing;
-      ListObjectsRequest req = new ListObjectsRequest().withBucketName(bucketName).withPrefix(path);
-      do {
-        listing = s3Client.listObjects(req);
-        listing
-            .getObjectSummaries()
-            .forEach(
-                object -> {
-                  s3Client.deleteObject(bucketName, object.getKey());
-                });
-        req.setMarker(listing.getNextMarker());
-      } while (listing.isTruncated());
+      // Only delete the directory itself, not its siblings sharing the name as a prefix
+      if (!path.isEmpty() && !path.endsWith("/")) {
+        path += "/";
+      }
+      S3PrefixDeleter.getInstance().deletePrefix(s3Client, bucketName, path);
       return URI.create(String.format("s3://%s/%s", bucketName, path));
     }
   }
@@ -1,5 +1,14 @@
 package io.unitycatalog.server.persist.utils;
 
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import io.unitycatalog.server.persist.dao.*;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -8,8 +17,11 @@ import java.util.Properties;
 import lombok.Getter;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.HibernateMetrics;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +31,11 @@ public class HibernateUtils {
 
   @Getter private static final SessionFactory sessionFactory;
   private static final ServerPropertiesUtils properties;
+  // Prefix of the HikariCP settings in hibernate.properties, e.g. hibernate.hikari.maximumPoolSize
+  private static final String HIKARI_PREFIX = "hibernate.hikari.";
+  // Prefix of the second-level cache region settings in hibernate.properties, e.g.
+  // caffeine.jcache.uc_catalogs.policy.maximum.size
+  private static final String CACHE_PREFIX = "caffeine.jcache.";
 
   static {
     properties = ServerPropertiesUtils.getInstance();
@@ -37,9 +54,9 @@ public class HibernateUtils {
       }
       Configuration configuration = new Configuration().setProperties(hibernateProperties);
       if ("test".equals(properties.getProperty("server.env"))) {
-        configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        configuration.setProperty(AvailableSettings.JAKARTA_JDBC_DRIVER, "org.h2.Driver");
         configuration.setProperty(
-            "hibernate.connection.url", "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
+            AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
         configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
         LOGGER.debug("Hibernate configuration set for testing");
       }
@@ -53,13 +70,122 @@ public class HibernateUtils {
       configuration.addAnnotatedClass(FunctionInfoDAO.class);
       configuration.addAnnotatedClass(FunctionParameterInfoDAO.class);
       configuration.addAnnotatedClass(VolumeInfoDAO.class);
+      configuration.addAnnotatedClass(StoragePurgeDAO.class);
+
+      if (Boolean.parseBoolean(
+          configuration.getProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE))) {
+        configureCacheRegions(configuration);
+      }
 
       ServiceRegistry serviceRegistry =
-          new StandardServiceRegistryBuilder().applySettings(configuration.getProperties()).build();
+          new StandardServiceRegistryBuilder()
+              .applySettings(configuration.getProperties())
+              .applySetting(
+                  AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, createDataSource(configuration))
+              .build();
 
-      return configuration.buildSessionFactory(serviceRegistry);
+      SessionFactory sessionFactory = configuration.buildSessionFactory(serviceRegistry);
+      if (sessionFactory.getStatistics().isStatisticsEnabled()) {
+        bindMetrics(sessionFactory);
+      }
+      return sessionFactory;
     } catch (Exception e) {
       throw new RuntimeException("Exception during creation of SessionFactory", e);
     }
   }
+
+  /**
+   * Get a connection setting by its Jakarta Persistence name, falling back to the legacy Hibernate
+   * names that existing hibernate.properties files use.
+   */
+  private static String getConnectionSetting(
+      Configuration configuration, String name, String... legacyNames) {
+    String value = configuration.getProperty(name);
+    for (int i = 0; value == null && i < legacyNames.length; i++) {
+      value = configuration.getProperty(legacyNames[i]);
+    }
+    return value;
+  }
+
+  static HikariDataSource createDataSource(Configuration configuration) {
+    Properties hikariProperties = new Properties();
+    for (String key : configuration.getProperties().stringPropertyNames()) {
+      if (key.startsWith(HIKARI_PREFIX)) {
+        hikariProperties.setProperty(
+            key.substring(HIKARI_PREFIX.length()), configuration.getProperty(key));
+      }
+    }
+    HikariConfig hikariConfig = new HikariConfig(hikariProperties);
+    hikariConfig.setPoolName("uc-hibernate");
+    hikariConfig.setJdbcUrl(
+        getConnectionSetting(
+            configuration, AvailableSettings.JAKARTA_JDBC_URL, "hibernate.connection.url"));
+    hikariConfig.setDriverClassName(
+        getConnectionSetting(
+            configuration,
+            AvailableSettings.JAKARTA_JDBC_DRIVER,
+            "hibernate.connection.driver_class"));
+    hikariConfig.setUsername(
+        getConnectionSetting(
+            configuration,
+            AvailableSettings.JAKARTA_JDBC_USER,
+            "hibernate.connection.username",
+            "hibernate.connection.user"));
+    hikariConfig.setPassword(
+        getConnectionSetting(
+            configuration,
+            AvailableSettings.JAKARTA_JDBC_PASSWORD,
+            "hibernate.connection.password"));
+    // Publishes hikaricp.connections.{active,idle,pending,acquire,...}
+    hikariConfig.setMetricsTrackerFactory(
+        new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+    return new HikariDataSource(hikariConfig);
+  }
+
+  /**
+   * Hands the {@code caffeine.jcache.*} settings of hibernate.properties to the Caffeine JCache
+   * provider, which otherwise only reads application.conf. Regions without their own settings use
+   * {@code caffeine.jcache.default}.
+   */
+  private static void configureCacheRegions(Configuration configuration) {
+    Properties cacheProperties = new Properties();
+    for (String key : configuration.getProperties().stringPropertyNames()) {
+      if (key.startsWith(CACHE_PREFIX)) {
+        cacheProperties.setProperty(key, configuration.getProperty(key));
+      }
+    }
+    Config config = ConfigFactory.load(ConfigFactory.parseProperties(cacheProperties));
+    TypesafeConfigurator.setConfigSource(() -> config);
+  }
+
+  /**
+   * Publishes the Hibernate statistics, which are only collected when {@code
+   * hibernate.generate_statistics} is true. They include hits and misses per cache region as
+   * {@code hibernate.second.level.cache.requests} and of the query cache as {@code
+   * hibernate.cache.query.requests}, plus overall hit ratios as {@code
+   * uc.hibernate.cache.hit.ratio}.
+   */
+  private static void bindMetrics(SessionFactory sessionFactory) {
+    new HibernateMetrics(sessionFactory, "uc", Tags.empty()).bindTo(Metrics.globalRegistry);
+    Statistics statistics = sessionFactory.getStatistics();
+    Gauge.builder(
+            "uc.hibernate.cache.hit.ratio",
+            statistics,
+            s -> hitRatio(s.getSecondLevelCacheHitCount(), s.getSecondLevelCacheMissCount()))
+        .tag("cache", "second-level")
+        .description("Share of second-level cache lookups that were hits")
+        .register(Metrics.globalRegistry);
+    Gauge.builder(
+            "uc.hibernate.cache.hit.ratio",
+            statistics,
+            s -> hitRatio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+        .tag("cache", "query")
+        .description("Share of query cache lookups that were hits")
+        .register(Metrics.globalRegistry);
+  }
+
+  private static double hitRatio(long hits, long misses) {
+    long requests = hits + misses;
+    return requests == 0 ? Double.NaN : (double) hits / requests;
+  }
 }
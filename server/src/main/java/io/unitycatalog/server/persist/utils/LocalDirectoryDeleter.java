@@ -0,0 +1,113 @@
+package io.unitycatalog.server.persist.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes local directory trees on a shared fork/join pool of {@code
+ * server.local.delete.parallelism} threads. Each directory is streamed, its files deleted as they
+ * are listed and its subdirectories forked as separate tasks, so memory use grows with the depth
+ * and width of the tree rather than with the number of files. Symbolic links are deleted, not
+ * followed.
+ */
+public class LocalDirectoryDeleter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocalDirectoryDeleter.class);
+
+  private static final LocalDirectoryDeleter INSTANCE =
+      new LocalDirectoryDeleter(
+          Integer.parseInt(
+              ServerPropertiesUtils.getInstance()
+                  .getProperty(
+                      "server.local.delete.parallelism",
+                      String.valueOf(Runtime.getRuntime().availableProcessors()))));
+
+  private final ForkJoinPool pool;
+
+  LocalDirectoryDeleter(int parallelism) {
+    this.pool =
+        new ForkJoinPool(
+            parallelism,
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setName("uc-local-delete-" + thread.getPoolIndex());
+              thread.setDaemon(true);
+              return thread;
+            },
+            null,
+            false);
+  }
+
+  public static LocalDirectoryDeleter getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Delete a directory and everything under it.
+   *
+   * @return The number of deleted files and directories
+   * @throws NoSuchFileException if the directory does not exist
+   */
+  public long deleteDirectory(Path directory) throws IOException {
+    if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+      throw new NoSuchFileException(directory.toString(), null, "Directory does not exist");
+    }
+    long deleted;
+    try {
+      deleted = pool.invoke(new DeleteTask(directory));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    LOGGER.info("Deleted {} files and directories under {}", deleted, directory);
+    return deleted;
+  }
+
+  private static class DeleteTask extends RecursiveTask<Long> {
+    private final Path path;
+
+    DeleteTask(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    protected Long compute() {
+      try {
+        long deleted = 0;
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+          List<DeleteTask> subdirectories = new ArrayList<>();
+          try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+            for (Path entry : entries) {
+              if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                DeleteTask subdirectory = new DeleteTask(entry);
+                subdirectory.fork();
+                subdirectories.add(subdirectory);
+              } else {
+                Files.delete(entry);
+                deleted++;
+              }
+            }
+          }
+          for (DeleteTask subdirectory : subdirectories) {
+            deleted += subdirectory.join();
+          }
+        }
+        Files.delete(path);
+        return deleted + 1;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -28,7 +28,7 @@ public class PagedListingHelper<T extends IdentifiableDAO> {
     this.entityClass = entityClass;
   }
 
-  public static final Integer DEFAULT_PAGE_SIZE = 100;
+  public static final int DEFAULT_PAGE_SIZE = 100;
 
   /**
    * Get the page size to use for listing entities. The page size is the minimum of the maxResults
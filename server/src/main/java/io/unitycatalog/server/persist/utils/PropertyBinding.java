@@ -0,0 +1,55 @@
+package io.unitycatalog.server.persist.utils;
+
+import io.unitycatalog.server.model.CatalogInfo;
+import io.unitycatalog.server.model.FunctionInfo;
+import io.unitycatalog.server.model.SchemaInfo;
+import io.unitycatalog.server.model.TableInfo;
+import io.unitycatalog.server.utils.Constants;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Describes how the properties of one entity type are stored and how they are set on its model
+ * class, so that they can be attached without reflection.
+ *
+ * @param <T> The model class of the entity
+ */
+public final class PropertyBinding<T> {
+
+  public static final PropertyBinding<CatalogInfo> CATALOG =
+      new PropertyBinding<>(Constants.CATALOG, CatalogInfo::getId, CatalogInfo::setProperties);
+  public static final PropertyBinding<SchemaInfo> SCHEMA =
+      new PropertyBinding<>(Constants.SCHEMA, SchemaInfo::getSchemaId, SchemaInfo::setProperties);
+  public static final PropertyBinding<TableInfo> TABLE =
+      new PropertyBinding<>(Constants.TABLE, TableInfo::getTableId, TableInfo::setProperties);
+  // FunctionInfo exposes its properties as a single string
+  public static final PropertyBinding<FunctionInfo> FUNCTION =
+      new PropertyBinding<>(
+          Constants.FUNCTION,
+          FunctionInfo::getFunctionId,
+          (functionInfo, properties) -> functionInfo.setProperties(properties.toString()));
+
+  private final String entityType;
+  private final Function<T, String> idGetter;
+  private final BiConsumer<T, Map<String, String>> setter;
+
+  private PropertyBinding(
+      String entityType, Function<T, String> idGetter, BiConsumer<T, Map<String, String>> setter) {
+    this.entityType = entityType;
+    this.idGetter = idGetter;
+    this.setter = setter;
+  }
+
+  public String getEntityType() {
+    return entityType;
+  }
+
+  public String getId(T entityInfo) {
+    return idGetter.apply(entityInfo);
+  }
+
+  public void setProperties(T entityInfo, Map<String, String> properties) {
+    setter.accept(entityInfo, properties);
+  }
+}
@@ -1,39 +1,103 @@
 package io.unitycatalog.server.persist.utils;
 
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.persist.PropertyRepository;
+import io.unitycatalog.server.persist.SchemaRepository;
+import io.unitycatalog.server.persist.dao.IdentifiableDAO;
 import io.unitycatalog.server.persist.dao.PropertyDAO;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.HashMap;
-import io.unitycatalog.server.utils.Constants;
 import org.hibernate.Session;
+import org.hibernate.query.Query;
 
 public class RepositoryUtils {
-  private static final Map<String, Class<?>> PROPERTY_TYPE_MAP = new HashMap<>();
-  static {
-    PROPERTY_TYPE_MAP.put(Constants.FUNCTION, String.class);
+
+  public static <T> T attachProperties(T entityInfo, PropertyBinding<T> binding, Session session) {
+    List<PropertyDAO> propertyDAOList =
+        PropertyRepository.findProperties(
+            session, UUID.fromString(binding.getId(entityInfo)), binding.getEntityType());
+    binding.setProperties(entityInfo, PropertyDAO.toMap(propertyDAOList));
+    return entityInfo;
+  }
+
+  /**
+   * Attach properties to a page of entities, loading them with one query instead of one per
+   * entity.
+   */
+  public static <T> List<T> attachProperties(
+      List<T> entityInfos, PropertyBinding<T> binding, Session session) {
+    List<UUID> entityIds = new ArrayList<>(entityInfos.size());
+    for (T entityInfo : entityInfos) {
+      entityIds.add(UUID.fromString(binding.getId(entityInfo)));
+    }
+    Map<UUID, List<PropertyDAO>> propertiesById =
+        PropertyRepository.findProperties(session, entityIds, binding.getEntityType());
+    for (int i = 0; i < entityInfos.size(); i++) {
+      List<PropertyDAO> propertyDAOList = propertiesById.getOrDefault(entityIds.get(i), List.of());
+      binding.setProperties(entityInfos.get(i), PropertyDAO.toMap(propertyDAOList));
+    }
+    return entityInfos;
   }
-  public static <T> T attachProperties(
-      T entityInfo, String uuid, String entityType, Session session) {
-    try {
-      List<PropertyDAO> propertyDAOList =
-          PropertyRepository.findProperties(session, UUID.fromString(uuid), entityType);
-      Class<?> entityClass = PROPERTY_TYPE_MAP.getOrDefault(entityType, Map.class);
-      Method setPropertiesMethod =
-          entityInfo.getClass().getMethod("setProperties", entityClass);
-      Map<String, String> propertyMap = PropertyDAO.toMap(propertyDAOList);
-      Object propertiesArgument = switch (entityClass.getSimpleName()) {
-          case "Map" -> propertyMap;
-          case "String" -> propertyMap.toString();
-          default -> throw new IllegalArgumentException("Unsupported parameter type: " + entityClass.getSimpleName());
-      };
-      setPropertiesMethod.invoke(entityInfo, propertiesArgument);
-      return entityInfo;
-    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-      throw new RuntimeException(e);
+
+  /**
+   * Find a table, volume or function by its three-level name with a single query that joins
+   * through the schema and catalog tables.
+   *
+   * @return The entity, or null if any level of the name does not exist
+   */
+  public static <T extends IdentifiableDAO> T findByFullName(
+      Session session,
+      Class<T> entityClass,
+      String catalogName,
+      String schemaName,
+      String name) {
+    String hql =
+        "SELECT e FROM "
+            + entityClass.getSimpleName()
+            + " e, SchemaInfoDAO s, CatalogInfoDAO c"
+            + " WHERE e.schemaId = s.id AND s.catalogId = c.id"
+            + " AND c.name = :catalogName AND s.name = :schemaName AND e.name = :name";
+    Query<T> query = session.createQuery(hql, entityClass);
+    query.setParameter("catalogName", catalogName);
+    query.setParameter("schemaName", schemaName);
+    query.setParameter("name", name);
+    query.setMaxResults(1);
+    return query.uniqueResult();
+  }
+
+  /**
+   * Like {@link #findByFullName}, but throws if the catalog or schema does not exist.
+   *
+   * @return The entity, or null if the catalog and schema exist but the entity does not
+   * @throws BaseException if the catalog or schema does not exist
+   */
+  public static <T extends IdentifiableDAO> T findInSchemaByFullName(
+      Session session,
+      Class<T> entityClass,
+      String catalogName,
+      String schemaName,
+      String name) {
+    T entity = findByFullName(session, entityClass, catalogName, schemaName, name);
+    if (entity == null) {
+      requireSchemaExists(session, catalogName, schemaName);
+    }
+    return entity;
+  }
+
+  /**
+   * Throw if the catalog or schema does not exist. A query joining through the schema and catalog
+   * tables cannot say which level of a name is missing, so on a miss the catalog and schema are
+   * resolved one at a time, usually from the namespace cache.
+   *
+   * @throws BaseException if the catalog or schema does not exist
+   */
+  public static void requireSchemaExists(Session session, String catalogName, String schemaName) {
+    if (SchemaRepository.getInstance().getSchemaId(session, catalogName, schemaName) == null) {
+      throw new BaseException(
+          ErrorCode.NOT_FOUND, "Schema not found: " + catalogName + "." + schemaName);
     }
   }
 }
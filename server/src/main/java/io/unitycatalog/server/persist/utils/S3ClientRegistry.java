@@ -0,0 +1,110 @@
+package io.unitycatalog.server.persist.utils;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares S3 clients between storage operations. A client owns a connection pool of {@code
+ * server.s3.maxConnections} connections, so one is kept per region, endpoint and credentials
+ * rather than built for every directory that is created or deleted. Callers may hold on to a
+ * client for a long delete, so clients are only shut down by {@link #invalidateAll()}, once the
+ * server has stopped and its storage operations are done.
+ */
+public class S3ClientRegistry {
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3ClientRegistry.class);
+
+  private static final S3ClientRegistry INSTANCE =
+      new S3ClientRegistry(
+          Integer.parseInt(
+              ServerPropertiesUtils.getInstance().getProperty("server.s3.maxConnections", "50")));
+
+  private final int maxConnections;
+  private final Cache<ClientKey, AmazonS3> clients;
+
+  S3ClientRegistry(int maxConnections) {
+    this.maxConnections = maxConnections;
+    this.clients =
+        Caffeine.newBuilder()
+            .removalListener(
+                (ClientKey key, AmazonS3 client, RemovalCause cause) -> {
+                  if (client != null) {
+                    LOGGER.debug("Shutting down S3 client for region {} ({})", key.region, cause);
+                    client.shutdown();
+                  }
+                })
+            .build();
+  }
+
+  public static S3ClientRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the client for the S3 settings of server.properties: {@code aws.region}, {@code
+   * aws.s3.accessKey}, {@code aws.s3.secretKey}, {@code aws.s3.sessionToken} and, for S3
+   * compatible stores, {@code aws.s3.endpoint}.
+   */
+  public AmazonS3 getClient() {
+    ServerPropertiesUtils properties = ServerPropertiesUtils.getInstance();
+    return getClient(
+        properties.getProperty("aws.region"),
+        properties.getProperty("aws.s3.endpoint"),
+        properties.getProperty("aws.s3.accessKey"),
+        properties.getProperty("aws.s3.secretKey"),
+        properties.getProperty("aws.s3.sessionToken"));
+  }
+
+  AmazonS3 getClient(
+      String region, String endpoint, String accessKey, String secretKey, String sessionToken) {
+    return clients.get(
+        new ClientKey(region, endpoint, accessKey, secretKey, sessionToken), this::createClient);
+  }
+
+  /** Shut down all clients. Clients requested afterwards are created anew. */
+  public void invalidateAll() {
+    clients.invalidateAll();
+  }
+
+  private AmazonS3 createClient(ClientKey key) {
+    AWSCredentials credentials =
+        key.sessionToken == null || key.sessionToken.isEmpty()
+            ? new BasicAWSCredentials(key.accessKey, key.secretKey)
+            : new BasicSessionCredentials(key.accessKey, key.secretKey, key.sessionToken);
+    AmazonS3ClientBuilder builder =
+        AmazonS3ClientBuilder.standard()
+            .withCredentials(new AWSStaticCredentialsProvider(credentials))
+            .withClientConfiguration(new ClientConfiguration().withMaxConnections(maxConnections));
+    if (key.endpoint == null || key.endpoint.isEmpty()) {
+      builder.withRegion(key.region);
+    } else {
+      builder
+          .withEndpointConfiguration(
+              new AwsClientBuilder.EndpointConfiguration(key.endpoint, key.region))
+          .withPathStyleAccessEnabled(true);
+    }
+    return builder.build();
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class ClientKey {
+    private final String region;
+    private final String endpoint;
+    private final String accessKey;
+    private final String secretKey;
+    private final String sessionToken;
+  }
+}
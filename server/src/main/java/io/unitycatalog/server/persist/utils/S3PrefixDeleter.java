@@ -0,0 +1,204 @@
+package io.unitycatalog.server.persist.utils;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.linecorp.armeria.common.util.ThreadFactories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.exception.ErrorCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes all objects under an S3 prefix with multi-object delete requests of up to 1000 keys.
+ * Listing goes on while the keys listed so far are deleted on a shared pool of {@code
+ * server.s3.delete.threads} threads; a single prefix has at most twice that many requests in
+ * flight. Keys that fail to delete are retried up to {@code server.s3.delete.maxRetries} times
+ * with exponential backoff. {@link #deletePrefix} returns only once all of its requests are done,
+ * so the client is not used after it returns.
+ *
+ * <p>Progress is logged every {@value #PROGRESS_LOG_INTERVAL} objects, and deleted objects are
+ * counted in the {@code uc.s3.objects.deleted} meter.
+ */
+public class S3PrefixDeleter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3PrefixDeleter.class);
+
+  private static final int MAX_KEYS_PER_REQUEST = 1000;
+  private static final long PROGRESS_LOG_INTERVAL = 10_000;
+  private static final long RETRY_BACKOFF_MILLIS = 200;
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private static final S3PrefixDeleter INSTANCE =
+      new S3PrefixDeleter(
+          Integer.parseInt(
+              ServerPropertiesUtils.getInstance().getProperty("server.s3.delete.threads", "8")),
+          Integer.parseInt(
+              ServerPropertiesUtils.getInstance().getProperty("server.s3.delete.maxRetries", "3")),
+          MAX_KEYS_PER_REQUEST);
+
+  private final ThreadPoolExecutor executor;
+  private final int maxInFlightRequests;
+  private final int maxRetries;
+  private final int keysPerRequest;
+  private final Counter deletedObjects;
+
+  S3PrefixDeleter(int threads, int maxRetries, int keysPerRequest) {
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadFactories.builder("uc-s3-delete").daemon(true).eventLoop(false).build());
+    executor.allowCoreThreadTimeOut(true);
+    this.maxInFlightRequests = 2 * threads;
+    this.maxRetries = maxRetries;
+    this.keysPerRequest = keysPerRequest;
+    this.deletedObjects =
+        Counter.builder("uc.s3.objects.deleted")
+            .description("Objects deleted from S3 when managed tables and volumes are dropped")
+            .register(Metrics.globalRegistry);
+  }
+
+  public static S3PrefixDeleter getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Delete all objects under a prefix.
+   *
+   * @return The number of deleted objects
+   * @throws BaseException if some objects could not be deleted
+   */
+  public long deletePrefix(AmazonS3 s3Client, String bucket, String prefix) {
+    Progress progress = new Progress(bucket, prefix);
+    Semaphore inFlight = new Semaphore(maxInFlightRequests);
+    Queue<String> failedKeys = new ConcurrentLinkedQueue<>();
+    List<CompletableFuture<Void>> requests = new ArrayList<>();
+    ListObjectsV2Request listRequest =
+        new ListObjectsV2Request()
+            .withBucketName(bucket)
+            .withPrefix(prefix)
+            .withMaxKeys(keysPerRequest);
+    try {
+      ListObjectsV2Result listing;
+      do {
+        listing = s3Client.listObjectsV2(listRequest);
+        List<KeyVersion> keys =
+            listing.getObjectSummaries().stream()
+                .map(S3ObjectSummary::getKey)
+                .map(KeyVersion::new)
+                .collect(Collectors.toList());
+        if (!keys.isEmpty()) {
+          // Wait for a slot, so that listing does not run far ahead of deleting
+          inFlight.acquire();
+          requests.add(
+              CompletableFuture.runAsync(
+                      () -> deleteKeys(s3Client, bucket, keys, failedKeys, progress), executor)
+                  .whenComplete((result, error) -> inFlight.release()));
+        }
+        listRequest.setContinuationToken(listing.getNextContinuationToken());
+      } while (listing.isTruncated());
+      CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BaseException(ErrorCode.ABORTED, "Interrupted deleting " + progress.location);
+    } catch (CompletionException e) {
+      throw new BaseException(
+          ErrorCode.INTERNAL, "Failed to delete " + progress.location, e.getCause());
+    } finally {
+      // Do not return while requests still use the client, even if listing failed
+      CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0]))
+          .handle((result, error) -> null)
+          .join();
+    }
+
+    if (!failedKeys.isEmpty()) {
+      throw new BaseException(
+          ErrorCode.INTERNAL,
+          String.format(
+              "Failed to delete %d objects under %s, e.g. %s",
+              failedKeys.size(), progress.location, failedKeys.peek()));
+    }
+    LOGGER.info("Deleted {} objects under {}", progress.deleted.get(), progress.location);
+    return progress.deleted.get();
+  }
+
+  /** Delete a batch of keys, retrying the ones that failed. */
+  private void deleteKeys(
+      AmazonS3 s3Client,
+      String bucket,
+      List<KeyVersion> keys,
+      Queue<String> failedKeys,
+      Progress progress) {
+    List<KeyVersion> remaining = keys;
+    for (int attempt = 0; ; attempt++) {
+      try {
+        s3Client.deleteObjects(
+            new DeleteObjectsRequest(bucket).withKeys(remaining).withQuiet(true));
+        progress.add(remaining.size());
+        return;
+      } catch (MultiObjectDeleteException e) {
+        progress.add(remaining.size() - e.getErrors().size());
+        remaining =
+            e.getErrors().stream()
+                .map(error -> new KeyVersion(error.getKey()))
+                .collect(Collectors.toList());
+        LOGGER.debug("Failed to delete {} objects under {}", remaining.size(), progress.location);
+      } catch (AmazonClientException e) {
+        if (attempt >= maxRetries) {
+          throw e;
+        }
+        LOGGER.debug("Failed to delete objects under {}", progress.location, e);
+      }
+      if (attempt >= maxRetries) {
+        remaining.forEach(key -> failedKeys.add(key.getKey()));
+        return;
+      }
+      try {
+        Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        remaining.forEach(key -> failedKeys.add(key.getKey()));
+        return;
+      }
+    }
+  }
+
+  private class Progress {
+    private final String location;
+    private final AtomicLong deleted = new AtomicLong();
+
+    Progress(String bucket, String prefix) {
+      this.location = "s3://" + bucket + "/" + prefix;
+    }
+
+    void add(long count) {
+      deletedObjects.increment(count);
+      long total = deleted.addAndGet(count);
+      if (total / PROGRESS_LOG_INTERVAL != (total - count) / PROGRESS_LOG_INTERVAL) {
+        LOGGER.info("Deleted {} objects under {} so far", total, location);
+      }
+    }
+  }
+}
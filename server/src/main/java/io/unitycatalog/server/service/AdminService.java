@@ -0,0 +1,38 @@
+package io.unitycatalog.server.service;
+
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.server.annotation.ExceptionHandler;
+import com.linecorp.armeria.server.annotation.Get;
+import com.linecorp.armeria.server.annotation.Param;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.exception.ErrorCode;
+import io.unitycatalog.server.exception.GlobalExceptionHandler;
+import io.unitycatalog.server.service.iceberg.TableMetricsStore;
+import java.util.Optional;
+
+/** Operational endpoints that are not part of the Unity Catalog or Iceberg REST APIs. */
+@ExceptionHandler(GlobalExceptionHandler.class)
+public class AdminService {
+  private final TableMetricsStore tableMetricsStore;
+
+  public AdminService(TableMetricsStore tableMetricsStore) {
+    this.tableMetricsStore = tableMetricsStore;
+  }
+
+  /**
+   * Scan and commit metrics reported by Iceberg clients, per table. Without a table name all
+   * tracked tables are returned, the ones that spent the most time in scan planning first.
+   */
+  @Get("/iceberg/metrics-reports")
+  public HttpResponse getIcebergMetricsReports(@Param("table") Optional<String> table) {
+    if (table.isEmpty()) {
+      return HttpResponse.ofJson(tableMetricsStore.getTableMetrics());
+    }
+    TableMetricsStore.TableMetricsSummary summary = tableMetricsStore.getTableMetrics(table.get());
+    if (summary == null) {
+      throw new BaseException(
+          ErrorCode.NOT_FOUND, "No metrics reports for table: " + table.get());
+    }
+    return HttpResponse.ofJson(summary);
+  }
+}
@@ -9,6 +9,7 @@ import io.unitycatalog.server.model.UpdateCatalog;
 import io.unitycatalog.server.persist.CatalogRepository;
 import java.util.Optional;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class CatalogService {
   private static final CatalogRepository CATALOG_REPOSITORY = CatalogRepository.getInstance();
@@ -8,6 +8,7 @@ import io.unitycatalog.server.model.CreateFunctionRequest;
 import io.unitycatalog.server.persist.FunctionRepository;
 import java.util.Optional;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class FunctionService {
 
@@ -1,63 +1,106 @@
 package io.unitycatalog.server.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.server.annotation.Blocking;
 import com.linecorp.armeria.server.annotation.ExceptionHandler;
 import com.linecorp.armeria.server.annotation.Get;
 import com.linecorp.armeria.server.annotation.Head;
+import com.linecorp.armeria.server.annotation.Header;
 import com.linecorp.armeria.server.annotation.Param;
 import com.linecorp.armeria.server.annotation.Post;
 import com.linecorp.armeria.server.annotation.ProducesJson;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.exception.ErrorCode;
 import io.unitycatalog.server.exception.IcebergRestExceptionHandler;
 import io.unitycatalog.server.model.CatalogInfo;
 import io.unitycatalog.server.model.ListCatalogsResponse;
 import io.unitycatalog.server.model.ListSchemasResponse;
 import io.unitycatalog.server.model.ListTablesResponse;
 import io.unitycatalog.server.model.SchemaInfo;
+import io.unitycatalog.server.persist.CatalogRepository;
+import io.unitycatalog.server.persist.SchemaRepository;
 import io.unitycatalog.server.persist.TableRepository;
-import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import io.unitycatalog.server.service.iceberg.CredentialVendor;
 import io.unitycatalog.server.service.iceberg.MetadataService;
-import io.unitycatalog.server.utils.JsonUtils;
-import java.io.IOException;
+import io.unitycatalog.server.service.iceberg.PagedListNamespacesResponse;
+import io.unitycatalog.server.service.iceberg.PagedListTablesResponse;
+import io.unitycatalog.server.service.iceberg.TableMetricsStore;
+import io.unitycatalog.server.utils.RESTObjectMapper;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import org.apache.iceberg.TableMetadata;
+import lombok.AllArgsConstructor;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.exceptions.NoSuchTableException;
 import org.apache.iceberg.exceptions.NoSuchViewException;
 import org.apache.iceberg.relocated.com.google.common.base.Splitter;
+import org.apache.iceberg.rest.requests.ReportMetricsRequest;
 import org.apache.iceberg.rest.responses.ConfigResponse;
 import org.apache.iceberg.rest.responses.GetNamespaceResponse;
-import org.apache.iceberg.rest.responses.ListNamespacesResponse;
 import org.apache.iceberg.rest.responses.LoadTableResponse;
 import org.apache.iceberg.rest.responses.LoadViewResponse;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+@Blocking
 @ExceptionHandler(IcebergRestExceptionHandler.class)
 public class IcebergRestCatalogService {
 
-  private final CatalogService catalogService;
-  private final SchemaService schemaService;
-  private final TableService tableService;
+  private static final Logger LOGGER = LoggerFactory.getLogger(IcebergRestCatalogService.class);
+  private static final String SNAPSHOTS_ALL = "all";
+  private static final String SNAPSHOTS_REFS = "refs";
+
   private final MetadataService metadataService;
+  private final TableMetricsStore tableMetricsStore;
+  private final CredentialVendor credentialVendor;
+  private final int maxUnpaginatedResults;
+  private final CatalogRepository catalogRepository = CatalogRepository.getInstance();
+  private final SchemaRepository schemaRepository = SchemaRepository.getInstance();
   private final TableRepository tableRepository = TableRepository.getInstance();
-  private static final SessionFactory sessionFactory = HibernateUtils.getSessionFactory();
 
   public IcebergRestCatalogService(
-      CatalogService catalogService,
-      SchemaService schemaService,
-      TableService tableService,
-      MetadataService metadataService) {
-    this.catalogService = catalogService;
-    this.schemaService = schemaService;
-    this.tableService = tableService;
+      MetadataService metadataService,
+      TableMetricsStore tableMetricsStore,
+      CredentialVendor credentialVendor) {
+    this(
+        metadataService,
+        tableMetricsStore,
+        credentialVendor,
+        Integer.parseInt(
+            ServerPropertiesUtils.getInstance()
+                .getProperty("server.iceberg.listing.maxUnpaginatedResults", "10000")));
+  }
+
+  IcebergRestCatalogService(
+      MetadataService metadataService,
+      TableMetricsStore tableMetricsStore,
+      CredentialVendor credentialVendor,
+      int maxUnpaginatedResults) {
+    if (maxUnpaginatedResults <= 0) {
+      throw new IllegalArgumentException("Max unpaginated listing results must be positive");
+    }
     this.metadataService = metadataService;
+    this.tableMetricsStore = tableMetricsStore;
+    this.credentialVendor = credentialVendor;
+    this.maxUnpaginatedResults = maxUnpaginatedResults;
   }
 
   // Config APIs
@@ -72,24 +115,26 @@ public class IcebergRestCatalogService {
 
   @Get("/v1/namespaces")
   @ProducesJson
-  public ListNamespacesResponse listNamespaces(@Param("parent") Optional<String> parent)
-      throws JsonProcessingException {
+  public PagedListNamespacesResponse listNamespaces(
+      @Param("parent") Optional<String> parent,
+      @Param("pageToken") Optional<String> pageToken,
+      @Param("pageSize") Optional<Integer> pageSize) {
     // List catalogs if the parent is not present
     if (!parent.isPresent()) {
-      String respContent =
-          catalogService
-              .listCatalogs(Optional.empty(), Optional.empty())
-              .aggregate()
-              .join()
-              .contentUtf8();
-      ListCatalogsResponse resp =
-          JsonUtils.getInstance().readValue(respContent, ListCatalogsResponse.class);
-      assert resp.getCatalogs() != null;
-      List<Namespace> namespaces =
-          resp.getCatalogs().stream()
-              .map(catalogInfo -> Namespace.of(catalogInfo.getName()))
-              .collect(Collectors.toList());
-      return ListNamespacesResponse.builder().addAll(namespaces).build();
+      Page<Namespace> page =
+          listPages(
+              pageToken,
+              pageSize,
+              (token, size) -> {
+                ListCatalogsResponse resp = catalogRepository.listCatalogs(size, token);
+                assert resp.getCatalogs() != null;
+                return new Page<>(
+                    resp.getCatalogs().stream()
+                        .map(catalogInfo -> Namespace.of(catalogInfo.getName()))
+                        .collect(Collectors.toList()),
+                    resp.getNextPageToken());
+              });
+      return new PagedListNamespacesResponse(page.items, page.nextPageToken);
     }
 
     List<String> parentParts = Splitter.on(".").splitToList(parent.get());
@@ -97,27 +142,29 @@ public class IcebergRestCatalogService {
     // If parent is a catalog, then list the schemas
     if (parentParts.size() == 1) {
       String catalogName = parentParts.get(0);
-      String respContent =
-          schemaService
-              .listSchemas(catalogName, Optional.of(Integer.MAX_VALUE), Optional.empty())
-              .aggregate()
-              .join()
-              .contentUtf8();
-      ListSchemasResponse resp =
-          JsonUtils.getInstance().readValue(respContent, ListSchemasResponse.class);
-      assert resp.getSchemas() != null;
-      List<Namespace> namespaces =
-          resp.getSchemas().stream()
-              .map(schemaInfo -> Namespace.of(schemaInfo.getCatalogName(), schemaInfo.getName()))
-              .collect(Collectors.toList());
-      return ListNamespacesResponse.builder().addAll(namespaces).build();
+      Page<Namespace> page =
+          listPages(
+              pageToken,
+              pageSize,
+              (token, size) -> {
+                ListSchemasResponse resp = schemaRepository.listSchemas(catalogName, size, token);
+                assert resp.getSchemas() != null;
+                return new Page<>(
+                    resp.getSchemas().stream()
+                        .map(
+                            schemaInfo ->
+                                Namespace.of(schemaInfo.getCatalogName(), schemaInfo.getName()))
+                        .collect(Collectors.toList()),
+                    resp.getNextPageToken());
+              });
+      return new PagedListNamespacesResponse(page.items, page.nextPageToken);
     }
 
     // If the parent is a schema, then return an empty list of namespaces
     if (parentParts.size() == 2) {
       // make sure the schema exists
-      schemaService.getSchema(parent.get());
-      return ListNamespacesResponse.builder().build();
+      schemaRepository.getSchema(parent.get());
+      return new PagedListNamespacesResponse(List.of(), null);
     }
 
     throw new IllegalArgumentException("invalid parent " + parent.get());
@@ -125,15 +172,13 @@ public class IcebergRestCatalogService {
 
   @Get("/v1/namespaces/{namespace}")
   @ProducesJson
-  public GetNamespaceResponse getNamespace(@Param("namespace") String namespace)
-      throws JsonProcessingException {
+  public GetNamespaceResponse getNamespace(@Param("namespace") String namespace) {
     List<String> namespaceParts = Splitter.on(".").splitToList(namespace);
 
     // If namespace length is 1, then it is a catalog
     if (namespaceParts.size() == 1) {
       String catalogName = namespaceParts.get(0);
-      String resp = catalogService.getCatalog(catalogName).aggregate().join().contentUtf8();
-      CatalogInfo catalog = JsonUtils.getInstance().readValue(resp, CatalogInfo.class);
+      CatalogInfo catalog = catalogRepository.getCatalog(catalogName);
       return GetNamespaceResponse.builder()
           .withNamespace(Namespace.of(catalogName))
           .setProperties(catalog.getProperties())
@@ -145,10 +190,10 @@ public class IcebergRestCatalogService {
       String catalogName = namespaceParts.get(0);
       String schemaName = namespaceParts.get(1);
       String schemaFullName = String.join(".", catalogName, schemaName);
-      String resp = schemaService.getSchema(schemaFullName).aggregate().join().contentUtf8();
+      SchemaInfo schema = schemaRepository.getSchema(schemaFullName);
       return GetNamespaceResponse.builder()
           .withNamespace(Namespace.of(catalogName, schemaName))
-          .setProperties(JsonUtils.getInstance().readValue(resp, SchemaInfo.class).getProperties())
+          .setProperties(schema.getProperties())
           .build();
     }
 
@@ -161,42 +206,62 @@ public class IcebergRestCatalogService {
   @Head("/v1/namespaces/{namespace}/tables/{table}")
   public HttpResponse tableExists(
       @Param("namespace") String namespace, @Param("table") String table) {
-    List<String> namespaceParts = splitTwoPartNamespace(namespace);
-    String catalog = namespaceParts.get(0);
-    String schema = namespaceParts.get(1);
-    try (Session session = sessionFactory.openSession()) {
-      tableRepository.getTable(namespace + "." + table);
-      String metadataLocation =
-          tableRepository.getTableUniformMetadataLocation(session, catalog, schema, table);
-      if (metadataLocation == null) {
-        throw new NoSuchTableException("Table does not exist: %s", namespace + "." + table);
-      } else {
-        return HttpResponse.of(HttpStatus.OK);
-      }
-    }
+    getMetadataLocation(namespace, table);
+    return HttpResponse.of(HttpStatus.OK);
   }
 
+  /**
+   * Load a table. With {@code snapshots=refs} only the snapshots referenced by branches and tags
+   * are returned. The config of the response carries the credentials for the table's storage, if
+   * the server has any for it. Responses carry an ETag derived from the metadata location, which
+   * changes with every commit, so clients polling with {@code If-None-Match} get a 304 while the
+   * table is unchanged.
+   */
   @Get("/v1/namespaces/{namespace}/tables/{table}")
   @ProducesJson
-  public LoadTableResponse loadTable(
-      @Param("namespace") String namespace, @Param("table") String table) throws IOException {
-    List<String> namespaceParts = splitTwoPartNamespace(namespace);
-    String catalog = namespaceParts.get(0);
-    String schema = namespaceParts.get(1);
-    String metadataLocation;
-    try (Session session = sessionFactory.openSession()) {
-      tableRepository.getTable(namespace + "." + table);
-      metadataLocation =
-          tableRepository.getTableUniformMetadataLocation(session, catalog, schema, table);
+  public HttpResponse loadTable(
+      @Param("namespace") String namespace,
+      @Param("table") String table,
+      @Param("snapshots") Optional<String> snapshots,
+      @Header("If-None-Match") Optional<String> ifNoneMatch) {
+    String snapshotMode = snapshots.orElse(SNAPSHOTS_ALL).toLowerCase(Locale.ROOT);
+    if (!SNAPSHOTS_ALL.equals(snapshotMode) && !SNAPSHOTS_REFS.equals(snapshotMode)) {
+      throw new IllegalArgumentException("invalid snapshots mode " + snapshots.get());
     }
-
-    if (metadataLocation == null) {
-      throw new NoSuchTableException("Table does not exist: %s", namespace + "." + table);
+    String metadataLocation = getMetadataLocation(namespace, table);
+    Map<String, String> config = credentialVendor.vendCredentials(metadataLocation);
+    String etag = etag(metadataLocation, snapshotMode, config);
+    if (ifNoneMatch.isPresent() && etagMatches(ifNoneMatch.get(), etag)) {
+      return HttpResponse.of(
+          ResponseHeaders.of(HttpStatus.NOT_MODIFIED, HttpHeaderNames.ETAG, etag));
     }
 
-    TableMetadata tableMetadata = metadataService.readTableMetadata(metadataLocation);
+    // The metadata file is read on the metadata IO pool, which frees this thread in the meantime
+    return HttpResponse.of(
+        metadataService
+            .readTableMetadataAsync(metadataLocation, SNAPSHOTS_REFS.equals(snapshotMode))
+            .thenApply(
+                tableMetadata -> {
+                  LoadTableResponse response =
+                      LoadTableResponse.builder()
+                          .withTableMetadata(tableMetadata)
+                          .addAllConfig(config)
+                          .build();
+                  return HttpResponse.of(
+                      ResponseHeaders.builder(HttpStatus.OK)
+                          .contentType(MediaType.JSON)
+                          .set(HttpHeaderNames.ETAG, etag)
+                          .build(),
+                      HttpData.wrap(toJsonBytes(response)));
+                }));
+  }
 
-    return LoadTableResponse.builder().withTableMetadata(tableMetadata).build();
+  private static byte[] toJsonBytes(Object value) {
+    try {
+      return RESTObjectMapper.mapper().writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   @Get("/v1/namespaces/{namespace}/views/{view}")
@@ -212,55 +277,130 @@ public class IcebergRestCatalogService {
 
   @Post("/v1/namespaces/{namespace}/tables/{table}/metrics")
   public HttpResponse reportMetrics(
-      @Param("namespace") String namespace, @Param("table") String table) {
+      @Param("namespace") String namespace,
+      @Param("table") String table,
+      ReportMetricsRequest request) {
+    // Only keep reports of tables that exist
+    getMetadataLocation(namespace, table);
+    if (request.reportType() != ReportMetricsRequest.ReportType.UNKNOWN) {
+      tableMetricsStore.record(namespace + "." + table, request.report());
+    }
     return HttpResponse.of(HttpStatus.OK);
   }
 
   @Get("/v1/namespaces/{namespace}/tables")
   @ProducesJson
-  public org.apache.iceberg.rest.responses.ListTablesResponse listTables(
-      @Param("namespace") String namespace) throws JsonProcessingException {
+  public PagedListTablesResponse listTables(
+      @Param("namespace") String namespace,
+      @Param("pageToken") Optional<String> pageToken,
+      @Param("pageSize") Optional<Integer> pageSize) {
     List<String> namespaceParts = splitTwoPartNamespace(namespace);
     String catalog = namespaceParts.get(0);
     String schema = namespaceParts.get(1);
-    AggregatedHttpResponse resp =
-        tableService
-            .listTables(
-                catalog,
-                schema,
-                Optional.of(Integer.MAX_VALUE),
-                Optional.empty(),
-                Optional.empty(),
-                Optional.empty())
-            .aggregate()
-            .join();
-    List<TableIdentifier> filteredTables;
-    try (Session session = sessionFactory.openSession()) {
-      filteredTables =
-          Objects.requireNonNull(
-                  JsonUtils.getInstance()
-                      .readValue(resp.contentUtf8(), ListTablesResponse.class)
-                      .getTables())
-              .stream()
-              .filter(
-                  tableInfo -> {
-                    String metadataLocation =
-                        tableRepository.getTableUniformMetadataLocation(
-                            session, catalog, schema, tableInfo.getName());
-                    return metadataLocation != null;
-                  })
-              .map(
-                  tableInfo ->
-                      TableIdentifier.of(
-                          tableInfo.getCatalogName(),
-                          tableInfo.getSchemaName(),
-                          tableInfo.getName()))
-              .collect(Collectors.toList());
+    Page<TableIdentifier> page =
+        listPages(
+            pageToken,
+            pageSize,
+            (token, size) -> {
+              ListTablesResponse resp =
+                  tableRepository.listIcebergTables(catalog, schema, size, token);
+              assert resp.getTables() != null;
+              return new Page<>(
+                  resp.getTables().stream()
+                      .map(tableInfo -> TableIdentifier.of(catalog, schema, tableInfo.getName()))
+                      .collect(Collectors.toList()),
+                  resp.getNextPageToken());
+            });
+    return new PagedListTablesResponse(page.items, page.nextPageToken);
+  }
+
+  /**
+   * Return a single page if the client paginates, i.e. passes a page token (empty for the first
+   * page) or a page size. Otherwise follow the page tokens, since such clients would not ask for
+   * the following pages, up to {@code server.iceberg.listing.maxUnpaginatedResults} items. A longer
+   * listing is cut off there with a next page token, and a warning is logged since the client may
+   * not notice it got only part of the listing.
+   */
+  private <T> Page<T> listPages(
+      Optional<String> pageToken,
+      Optional<Integer> pageSize,
+      BiFunction<Optional<String>, Optional<Integer>, Page<T>> listPage) {
+    if (pageToken.isPresent() || pageSize.isPresent()) {
+      return listPage.apply(pageToken.filter(token -> !token.isEmpty()), pageSize);
+    }
+    List<T> items = new ArrayList<>();
+    String nextPageToken = null;
+    do {
+      Page<T> page =
+          listPage.apply(
+              Optional.ofNullable(nextPageToken),
+              Optional.of(maxUnpaginatedResults - items.size()));
+      items.addAll(page.items);
+      nextPageToken = page.nextPageToken;
+    } while (nextPageToken != null && items.size() < maxUnpaginatedResults);
+    if (nextPageToken != null) {
+      LOGGER.warn(
+          "Listing without pageToken or pageSize cut off at {} results, "
+              + "see server.iceberg.listing.maxUnpaginatedResults",
+          maxUnpaginatedResults);
+    }
+    return new Page<>(items, nextPageToken);
+  }
+
+  /**
+   * Weak ETag of a load table response. The metadata location identifies the table state, the
+   * snapshot mode the representation. The config is included so that clients see rotated
+   * credentials.
+   */
+  private static String etag(
+      String metadataLocation, String snapshotMode, Map<String, String> config) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(metadataLocation.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(snapshotMode.getBytes(StandardCharsets.UTF_8));
+      for (Map.Entry<String, String> entry : new TreeMap<>(config).entrySet()) {
+        digest.update((byte) 0);
+        digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '=');
+        digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+      }
+      return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean etagMatches(String ifNoneMatch, String etag) {
+    String opaqueTag = etag.substring(2);
+    for (String candidate : Splitter.on(',').trimResults().split(ifNoneMatch)) {
+      if (candidate.equals("*")
+          || candidate.equals(etag)
+          || candidate.equals(opaqueTag)
+          || candidate.equals("W/" + opaqueTag)) {
+        return true;
+      }
     }
+    return false;
+  }
 
-    return org.apache.iceberg.rest.responses.ListTablesResponse.builder()
-        .addAll(filteredTables)
-        .build();
+  private String getMetadataLocation(String namespace, String table) {
+    List<String> namespaceParts = splitTwoPartNamespace(namespace);
+    String metadataLocation;
+    try {
+      metadataLocation =
+          tableRepository.getTableUniformMetadataLocation(
+              namespaceParts.get(0), namespaceParts.get(1), table);
+    } catch (BaseException e) {
+      if (e.getErrorCode() == ErrorCode.NOT_FOUND) {
+        throw new NoSuchTableException(e, "%s", e.getMessage());
+      }
+      throw e;
+    }
+    if (metadataLocation == null) {
+      throw new NoSuchTableException("Table does not exist: %s", namespace + "." + table);
+    }
+    return metadataLocation;
   }
 
   private List<String> splitTwoPartNamespace(String namespace) {
@@ -272,4 +412,10 @@ public class IcebergRestCatalogService {
 
     return namespaceParts;
   }
+
+  @AllArgsConstructor
+  private static class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+  }
 }
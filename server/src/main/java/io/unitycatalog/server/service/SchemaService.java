@@ -9,6 +9,7 @@ import io.unitycatalog.server.model.UpdateSchema;
 import io.unitycatalog.server.persist.SchemaRepository;
 import java.util.Optional;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class SchemaService {
   private static final SchemaRepository SCHEMA_REPOSITORY = SchemaRepository.getInstance();
@@ -9,6 +9,7 @@ import io.unitycatalog.server.model.TableInfo;
 import io.unitycatalog.server.persist.TableRepository;
 import java.util.Optional;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class TableService {
 
@@ -1,6 +1,7 @@
 package io.unitycatalog.server.service;
 
 import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.server.annotation.Blocking;
 import com.linecorp.armeria.server.annotation.ExceptionHandler;
 import com.linecorp.armeria.server.annotation.Post;
 import io.unitycatalog.server.exception.BaseException;
@@ -10,6 +11,7 @@ import io.unitycatalog.server.model.*;
 import io.unitycatalog.server.persist.TableRepository;
 import io.unitycatalog.server.utils.TemporaryCredentialUtils;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class TemporaryTableCredentialsService {
 
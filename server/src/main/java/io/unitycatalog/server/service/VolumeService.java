@@ -9,6 +9,7 @@ import io.unitycatalog.server.model.UpdateVolumeRequestContent;
 import io.unitycatalog.server.persist.VolumeRepository;
 import java.util.Optional;
 
+@Blocking
 @ExceptionHandler(GlobalExceptionHandler.class)
 public class VolumeService {
   private static final VolumeRepository VOLUME_REPOSITORY = VolumeRepository.getInstance();
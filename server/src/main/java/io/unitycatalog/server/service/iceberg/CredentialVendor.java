@@ -0,0 +1,85 @@
+package io.unitycatalog.server.service.iceberg;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.model.AwsCredentials;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import io.unitycatalog.server.utils.TemporaryCredentialUtils;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iceberg.aws.AwsClientProperties;
+import org.apache.iceberg.aws.s3.S3FileIOProperties;
+
+/**
+ * Builds the FileIO config that hands storage credentials to Iceberg REST clients in load table
+ * responses, so they can read the table's files without asking for credentials separately.
+ * The credentials only depend on the bucket, so they are cached per bucket for {@code
+ * server.iceberg.vendedCredentials.ttlMinutes}, for at most {@code
+ * server.iceberg.vendedCredentials.maxBuckets} buckets.
+ */
+public class CredentialVendor {
+
+  private static final String S3 = "s3";
+
+  private final Cache<String, Map<String, String>> bucketCredentials;
+
+  public CredentialVendor() {
+    this(
+        Duration.ofMinutes(Long.parseLong(getProperty("ttlMinutes", "15"))),
+        Long.parseLong(getProperty("maxBuckets", "1000")));
+  }
+
+  CredentialVendor(Duration ttl, long maxBuckets) {
+    this.bucketCredentials =
+        Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxBuckets).build();
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return ServerPropertiesUtils.getInstance()
+        .getProperty("server.iceberg.vendedCredentials." + name, defaultValue);
+  }
+
+  /**
+   * Get the FileIO config with credentials for the files of a table.
+   *
+   * @param location A location of the table, such as its metadata location
+   * @return The config, empty if the location is not on S3 or no credentials are configured for
+   *     its bucket
+   */
+  public Map<String, String> vendCredentials(String location) {
+    URI uri = URI.create(location);
+    if (!S3.equals(uri.getScheme())) {
+      return Map.of();
+    }
+    return bucketCredentials.get(uri.getHost(), bucket -> buildConfig(findCredentials(location)));
+  }
+
+  protected AwsCredentials findCredentials(String location) {
+    try {
+      return TemporaryCredentialUtils.findS3BucketConfig(location);
+    } catch (BaseException e) {
+      return null;
+    }
+  }
+
+  private static Map<String, String> buildConfig(AwsCredentials credentials) {
+    if (credentials == null) {
+      return Map.of();
+    }
+    Map<String, String> config = new HashMap<>();
+    config.put(S3FileIOProperties.ACCESS_KEY_ID, credentials.getAccessKeyId());
+    config.put(S3FileIOProperties.SECRET_ACCESS_KEY, credentials.getSecretAccessKey());
+    if (credentials.getSessionToken() != null && !credentials.getSessionToken().isEmpty()) {
+      config.put(S3FileIOProperties.SESSION_TOKEN, credentials.getSessionToken());
+    }
+    String region =
+        ServerPropertiesUtils.getInstance().getProperty("aws.region", System.getenv("AWS_REGION"));
+    if (region != null && !region.isEmpty()) {
+      config.put(AwsClientProperties.CLIENT_REGION, region);
+    }
+    return Map.copyOf(config);
+  }
+}
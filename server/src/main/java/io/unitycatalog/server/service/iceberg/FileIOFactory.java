@@ -1,13 +1,21 @@
 package io.unitycatalog.server.service.iceberg;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.model.AwsCredentials;
 import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
 import io.unitycatalog.server.utils.TemporaryCredentialUtils;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.apache.iceberg.aws.s3.S3FileIO;
 import org.apache.iceberg.io.FileIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
@@ -15,30 +23,67 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 
+/**
+ * Hands out the {@link FileIO} for a table location. S3 FileIOs own an S3 client and its connection
+ * pool, so they are reused per bucket and credentials. When the credentials configured for a bucket
+ * change, a new FileIO is created; the one built with the old credentials may still be in use by
+ * running reads, so it is left to expire. FileIOs that have not been used for {@code
+ * server.iceberg.fileIOCache.expireAfterAccessMinutes} are closed.
+ */
 public class FileIOFactory {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileIOFactory.class);
+
   private static final String S3 = "s3";
 
-  public FileIOFactory() {}
+  private final FileIO localFileIO = new SimpleLocalFileIO();
+  private final Cache<FileIOKey, FileIO> fileIOs;
+
+  public FileIOFactory() {
+    long expireAfterAccessMinutes =
+        Long.parseLong(
+            ServerPropertiesUtils.getInstance()
+                .getProperty("server.iceberg.fileIOCache.expireAfterAccessMinutes", "60"));
+    fileIOs =
+        Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+            .removalListener(
+                (FileIOKey key, FileIO fileIO, RemovalCause cause) -> {
+                  if (fileIO != null) {
+                    LOGGER.debug("Closing FileIO for {}://{} ({})", key.scheme, key.bucket, cause);
+                    fileIO.close();
+                  }
+                })
+            .build();
+  }
 
-  // TODO: Cache fileIOs
   public FileIO getFileIO(URI tableLocationUri) {
     switch (tableLocationUri.getScheme()) {
       case S3:
-        return getS3FileIO(tableLocationUri);
+        return getCachedS3FileIO(tableLocationUri);
         // TODO: should we default/fallback to HadoopFileIO ?
       default:
-        return new SimpleLocalFileIO();
+        return localFileIO;
     }
   }
 
-  protected S3FileIO getS3FileIO(URI tableLocationUri) {
+  /** Close all cached FileIOs, once no more reads go through them. */
+  public void invalidateAll() {
+    fileIOs.invalidateAll();
+  }
+
+  private FileIO getCachedS3FileIO(URI tableLocationUri) {
+    AwsCredentials credentials = findCredentials(tableLocationUri);
+    FileIOKey key = new FileIOKey(S3, tableLocationUri.getHost(), credentials);
+    return fileIOs.get(key, k -> getS3FileIO(getAwsCredentialsProvider(credentials)));
+  }
+
+  protected S3FileIO getS3FileIO(AwsCredentialsProvider awsCredentialsProvider) {
     String region =
         ServerPropertiesUtils.getInstance().getProperty("aws.region", System.getenv("AWS_REGION"));
 
     // FIXME!! - proper credential vending and region settings
-    S3FileIO s3FileIO =
-        new S3FileIO(() -> getS3Client(getAwsCredentialsProvider(tableLocationUri), region));
+    S3FileIO s3FileIO = new S3FileIO(() -> getS3Client(awsCredentialsProvider, region));
 
     s3FileIO.initialize(Map.of());
 
@@ -53,17 +98,31 @@ public class FileIOFactory {
         .build();
   }
 
-  private AwsCredentialsProvider getAwsCredentialsProvider(URI tableLocationUri) {
+  protected AwsCredentials findCredentials(URI tableLocationUri) {
     try {
-      AwsCredentials credentials =
-          TemporaryCredentialUtils.findS3BucketConfig(tableLocationUri.toString());
-      return StaticCredentialsProvider.create(
-          AwsSessionCredentials.create(
-              credentials.getAccessKeyId(),
-              credentials.getSecretAccessKey(),
-              credentials.getSessionToken()));
+      return TemporaryCredentialUtils.findS3BucketConfig(tableLocationUri.toString());
     } catch (BaseException e) {
+      return null;
+    }
+  }
+
+  private static AwsCredentialsProvider getAwsCredentialsProvider(AwsCredentials credentials) {
+    if (credentials == null) {
       return DefaultCredentialsProvider.create();
     }
+    return StaticCredentialsProvider.create(
+        AwsSessionCredentials.create(
+            credentials.getAccessKeyId(),
+            credentials.getSecretAccessKey(),
+            credentials.getSessionToken()));
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class FileIOKey {
+    private final String scheme;
+    private final String bucket;
+    // null when the default credential chain is used
+    private final AwsCredentials credentials;
   }
 }
@@ -0,0 +1,233 @@
+package io.unitycatalog.server.service.iceberg;
+
+import com.linecorp.armeria.common.util.ThreadFactories;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs object store reads on a dedicated pool of {@code server.iceberg.metadataIO.threads} threads,
+ * so that request and blocking-task threads are not held for the latency of the store. Each store
+ * (scheme and bucket) runs at most {@code server.iceberg.metadataIO.maxConcurrencyPerStore} reads
+ * at a time, further reads of a slow store wait in its own queue and leave the remaining threads
+ * to the other stores. At most {@code server.iceberg.metadataIO.queueSize} reads may wait per
+ * store, and reads not done within {@code server.iceberg.metadataIO.timeoutSeconds} fail and are
+ * interrupted. A read keeps its place until its thread returns, so reads that do not respond to
+ * the interrupt still count against the limit of their store and cannot pile up threads.
+ *
+ * <p>Queued and active reads are published as {@code uc.iceberg.metadata.io.*} meters.
+ */
+public class MetadataIOExecutor {
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final ThreadPoolExecutor executor;
+  private final int maxConcurrencyPerStore;
+  private final int queueSize;
+  private final Duration timeout;
+  private final ConcurrentMap<String, StoreQueue> stores = new ConcurrentHashMap<>();
+
+  public MetadataIOExecutor() {
+    this(
+        Integer.parseInt(getProperty("threads", "32")),
+        Integer.parseInt(getProperty("maxConcurrencyPerStore", "16")),
+        Integer.parseInt(getProperty("queueSize", "1000")),
+        Duration.ofSeconds(Long.parseLong(getProperty("timeoutSeconds", "30"))));
+  }
+
+  MetadataIOExecutor(int threads, int maxConcurrencyPerStore, int queueSize, Duration timeout) {
+    if (threads <= 0 || maxConcurrencyPerStore <= 0 || queueSize <= 0) {
+      throw new IllegalArgumentException(
+          "Metadata IO threads, concurrency and queue size must be positive");
+    }
+    this.maxConcurrencyPerStore = maxConcurrencyPerStore;
+    this.queueSize = queueSize;
+    this.timeout = timeout;
+    // Tasks are only handed to the pool within the per-store limits, so its own queue stays short
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadFactories.builder("uc-metadata-io").daemon(true).eventLoop(false).build());
+    executor.allowCoreThreadTimeOut(true);
+    Gauge.builder("uc.iceberg.metadata.io.queued", this, MetadataIOExecutor::getQueuedTasks)
+        .description("Metadata reads waiting for their store's concurrency limit")
+        .register(Metrics.globalRegistry);
+    Gauge.builder("uc.iceberg.metadata.io.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Metadata reads currently running")
+        .register(Metrics.globalRegistry);
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return ServerPropertiesUtils.getInstance()
+        .getProperty("server.iceberg.metadataIO." + name, defaultValue);
+  }
+
+  /**
+   * Run a read against a store.
+   *
+   * @param store The store the task reads from, for example {@code s3://bucket}
+   * @return A future completed with the result of the task. It fails with a {@link
+   *     RejectedExecutionException} if the queue of the store is full, and with a {@link
+   *     TimeoutException} if the task did not finish in time. A timed out task is interrupted, and
+   *     counts against the concurrency limit of its store until it returns.
+   */
+  public <T> CompletableFuture<T> submit(String store, Supplier<T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    Runnable runnable =
+        () -> {
+          if (future.isDone()) {
+            // Timed out while waiting in the queue
+            return;
+          }
+          try {
+            future.complete(task.get());
+          } catch (Throwable t) {
+            future.completeExceptionally(t);
+          }
+        };
+    StoreQueue storeQueue = stores.computeIfAbsent(store, s -> new StoreQueue());
+    Read read = new Read(runnable, future);
+    future.whenComplete(
+        (result, error) -> {
+          if (error instanceof TimeoutException) {
+            storeQueue.cancel(read);
+          }
+        });
+    storeQueue.submit(read);
+    return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  long getQueuedTasks() {
+    return stores.values().stream().mapToLong(StoreQueue::getQueued).sum();
+  }
+
+  /**
+   * Shut the pool down. Reads already started are given up to the read timeout to finish, so that
+   * the file IOs they use can be closed afterwards.
+   */
+  public void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Reads of one store, started in submission order up to the concurrency limit. */
+  private class StoreQueue {
+    private final Deque<Read> pending = new ArrayDeque<>();
+    private int running;
+
+    void submit(Read read) {
+      synchronized (this) {
+        if (running >= maxConcurrencyPerStore) {
+          if (pending.size() >= queueSize) {
+            read.future.completeExceptionally(
+                new RejectedExecutionException("Too many pending metadata reads"));
+          } else {
+            pending.addLast(read);
+          }
+          return;
+        }
+        running++;
+      }
+      dispatch(read);
+    }
+
+    synchronized int getQueued() {
+      return pending.size();
+    }
+
+    /**
+     * Drop a timed out read from the queue, or interrupt it if started. A started read gives up its
+     * slot once it returns.
+     */
+    void cancel(Read read) {
+      synchronized (this) {
+        if (pending.remove(read)) {
+          return;
+        }
+      }
+      read.interrupt();
+    }
+
+    private void dispatch(Read read) {
+      try {
+        executor.execute(
+            () -> {
+              read.start(Thread.currentThread());
+              try {
+                read.task.run();
+              } finally {
+                read.finish();
+                release();
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        read.future.completeExceptionally(e);
+        release();
+      }
+    }
+
+    /** Hand the slot of a finished read to the next pending one. */
+    private void release() {
+      Read next;
+      synchronized (this) {
+        next = pending.pollFirst();
+        if (next == null) {
+          running--;
+          return;
+        }
+      }
+      dispatch(next);
+    }
+  }
+
+  private static class Read {
+    private final Runnable task;
+    private final CompletableFuture<?> future;
+    private Thread thread;
+    private boolean finished;
+
+    Read(Runnable task, CompletableFuture<?> future) {
+      this.task = task;
+      this.future = future;
+    }
+
+    synchronized void start(Thread thread) {
+      this.thread = thread;
+    }
+
+    synchronized void interrupt() {
+      if (thread != null && !finished) {
+        thread.interrupt();
+      }
+    }
+
+    synchronized void finish() {
+      finished = true;
+      // Do not carry an interrupt meant for this read over to the next task of the thread
+      Thread.interrupted();
+    }
+  }
+}
@@ -1,23 +1,173 @@
 package io.unitycatalog.server.service.iceberg;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.TableMetadata;
 import org.apache.iceberg.TableMetadataParser;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.relocated.com.google.common.base.Throwables;
 
+/**
+ * Reads Iceberg table metadata. Metadata files are never rewritten in place, so parsed metadata is
+ * cached by metadata location. The cache is bounded by the estimated heap size of the metadata it
+ * holds ({@code server.iceberg.metadataCache.maxBytes}), see {@link #estimateRetainedBytes}, and
+ * its hits, misses and evictions are published as the {@code uc.iceberg.metadata} cache meters.
+ *
+ * <p>Files are read on the {@link MetadataIOExecutor}, and concurrent requests for a location that
+ * is not cached yet share a single read. Callers that only need the snapshots referenced by
+ * branches and tags can ask for just those, which are parsed by streaming through the file with
+ * the {@link StreamingMetadataParser} and cached separately.
+ */
 public class MetadataService {
 
+  private static final long DEFAULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+
+  // Approximate heap retained by the parts of parsed metadata, measured on Iceberg 1.5
+  private static final long BASE_BYTES = 4096;
+  private static final long FIELD_BYTES = 256;
+  private static final long SNAPSHOT_BYTES = 384;
+  private static final long SUMMARY_ENTRY_BYTES = 100;
+  private static final long SNAPSHOT_LOG_ENTRY_BYTES = 48;
+  private static final long METADATA_LOG_ENTRY_BYTES = 256;
+  private static final long PARTITION_SPEC_BYTES = 256;
+  private static final long SORT_ORDER_BYTES = 128;
+  private static final long PROPERTY_BYTES = 96;
+  private static final long REF_BYTES = 96;
+  private static final long STATISTICS_FILE_BYTES = 512;
+
   private final FileIOFactory fileIOFactory;
+  private final MetadataIOExecutor ioExecutor;
+  private final AsyncCache<MetadataKey, CachedMetadata> metadataCache;
 
-  public MetadataService(FileIOFactory fileIOFactory) {
+  public MetadataService(FileIOFactory fileIOFactory, MetadataIOExecutor ioExecutor) {
+    this(
+        fileIOFactory,
+        ioExecutor,
+        Long.parseLong(
+            ServerPropertiesUtils.getInstance()
+                .getProperty(
+                    "server.iceberg.metadataCache.maxBytes",
+                    String.valueOf(DEFAULT_CACHE_MAX_BYTES))));
+  }
+
+  MetadataService(FileIOFactory fileIOFactory, MetadataIOExecutor ioExecutor, long cacheMaxBytes) {
     this.fileIOFactory = fileIOFactory;
+    this.ioExecutor = ioExecutor;
+    this.metadataCache =
+        Caffeine.newBuilder()
+            .maximumWeight(cacheMaxBytes)
+            .weigher((MetadataKey key, CachedMetadata cached) -> cached.weight)
+            .recordStats()
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(
+        Metrics.globalRegistry, metadataCache.synchronous(), "uc.iceberg.metadata");
+  }
+
+  /**
+   * Read the metadata of a table without blocking the calling thread. Failed reads are not cached.
+   */
+  public CompletableFuture<TableMetadata> readTableMetadataAsync(String metadataLocation) {
+    return readTableMetadataAsync(metadataLocation, false);
+  }
+
+  /**
+   * Read the metadata of a table without blocking the calling thread. Failed reads are not cached.
+   *
+   * @param referencedSnapshotsOnly Whether to drop the snapshots that no branch or tag refers to
+   */
+  public CompletableFuture<TableMetadata> readTableMetadataAsync(
+      String metadataLocation, boolean referencedSnapshotsOnly) {
+    return metadataCache
+        .get(
+            new MetadataKey(metadataLocation, referencedSnapshotsOnly),
+            (key, executor) ->
+                ioExecutor.submit(storeOf(key.location), () -> parseTableMetadata(key)))
+        .thenApply(cached -> cached.metadata);
   }
 
   public TableMetadata readTableMetadata(String metadataLocation) {
-    URI metadataLocationUri = URI.create(metadataLocation);
-    // TODO: cache fileIO
+    try {
+      return readTableMetadataAsync(metadataLocation).join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  public CacheStats getCacheStats() {
+    return metadataCache.synchronous().stats();
+  }
+
+  private static String storeOf(String metadataLocation) {
+    URI uri = URI.create(metadataLocation);
+    return uri.getScheme() + "://" + (uri.getAuthority() != null ? uri.getAuthority() : "");
+  }
+
+  private CachedMetadata parseTableMetadata(MetadataKey key) {
+    URI metadataLocationUri = URI.create(key.location);
     FileIO fileIO = fileIOFactory.getFileIO(metadataLocationUri);
+    InputFile inputFile = fileIO.newInputFile(key.location);
+    TableMetadata metadata =
+        key.referencedSnapshotsOnly
+            ? StreamingMetadataParser.readReferencedSnapshots(inputFile)
+            : TableMetadataParser.read(fileIO, inputFile);
+    int weight = (int) Math.min(Integer.MAX_VALUE, estimateRetainedBytes(metadata));
+    return new CachedMetadata(metadata, weight);
+  }
+
+  /**
+   * Estimate the heap retained by parsed metadata from the number of snapshots, fields, log
+   * entries and so on it holds. This is an approximation: it does not walk strings or nested
+   * objects, and is meant to keep the cache within a known order of magnitude of its bound.
+   */
+  static long estimateRetainedBytes(TableMetadata metadata) {
+    long bytes = BASE_BYTES;
+    for (Schema schema : metadata.schemas()) {
+      bytes += schema.highestFieldId() * FIELD_BYTES;
+    }
+    for (Snapshot snapshot : metadata.snapshots()) {
+      bytes += SNAPSHOT_BYTES + snapshot.summary().size() * SUMMARY_ENTRY_BYTES;
+    }
+    for (PartitionSpec spec : metadata.specs()) {
+      bytes += PARTITION_SPEC_BYTES + spec.fields().size() * FIELD_BYTES;
+    }
+    for (SortOrder sortOrder : metadata.sortOrders()) {
+      bytes += SORT_ORDER_BYTES + sortOrder.fields().size() * FIELD_BYTES;
+    }
+    bytes += metadata.snapshotLog().size() * SNAPSHOT_LOG_ENTRY_BYTES;
+    bytes += metadata.previousFiles().size() * METADATA_LOG_ENTRY_BYTES;
+    bytes += metadata.properties().size() * PROPERTY_BYTES;
+    bytes += metadata.refs().size() * REF_BYTES;
+    bytes += metadata.statisticsFiles().size() * STATISTICS_FILE_BYTES;
+    bytes += metadata.partitionStatisticsFiles().size() * STATISTICS_FILE_BYTES;
+    return bytes;
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class MetadataKey {
+    private final String location;
+    private final boolean referencedSnapshotsOnly;
+  }
 
-    return TableMetadataParser.read(fileIO, metadataLocation);
+  @AllArgsConstructor
+  private static class CachedMetadata {
+    private final TableMetadata metadata;
+    // Estimated heap size of the metadata in bytes
+    private final int weight;
   }
 }
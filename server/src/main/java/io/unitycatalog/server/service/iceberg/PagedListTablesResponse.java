@@ -0,0 +1,20 @@
+package io.unitycatalog.server.service.iceberg;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Iceberg REST list tables response with the {@code next-page-token} of the REST spec, which the
+ * Iceberg 1.5 response model does not have yet.
+ */
+@Getter
+@AllArgsConstructor
+public class PagedListTablesResponse {
+  private final List<TableIdentifier> identifiers;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private final String nextPageToken;
+}
@@ -0,0 +1,107 @@
+package io.unitycatalog.server.service.iceberg;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.util.JsonUtil;
+
+/**
+ * Reads table metadata keeping only the snapshots referenced by branches and tags. {@link
+ * TableMetadataParser#read} builds a JSON tree of the whole file first, which for tables with a
+ * long history is mostly snapshots nobody asked for. Here the file is streamed and every snapshot
+ * is dropped as soon as it is parsed, unless a ref points to it. The snapshot log and statistics
+ * are trimmed to the same snapshots.
+ *
+ * <p>Iceberg writes the refs before the snapshots. If a file lists them the other way around,
+ * snapshots are kept until the refs are known, so such files are parsed correctly but without the
+ * memory savings.
+ */
+class StreamingMetadataParser {
+
+  private static final String CURRENT_SNAPSHOT_ID = "current-snapshot-id";
+  private static final String REFS = "refs";
+  private static final String SNAPSHOTS = "snapshots";
+  private static final String SNAPSHOT_ID = "snapshot-id";
+  private static final String SNAPSHOT_LOG = "snapshot-log";
+  private static final String STATISTICS = "statistics";
+  private static final String PARTITION_STATISTICS = "partition-statistics";
+
+  private StreamingMetadataParser() {}
+
+  static TableMetadata readReferencedSnapshots(InputFile file) {
+    ObjectMapper mapper = JsonUtil.mapper();
+    try (InputStream in = open(file);
+        JsonParser parser = JsonUtil.factory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalArgumentException("Cannot parse metadata from non-object: " + file);
+      }
+      ObjectNode root = mapper.createObjectNode();
+      Set<Long> referenced = new HashSet<>();
+      boolean refsRead = false;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        if (SNAPSHOTS.equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+          ArrayNode snapshots = root.putArray(SNAPSHOTS);
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            JsonNode snapshot = mapper.readTree(parser);
+            if (!refsRead || referenced.contains(snapshot.path(SNAPSHOT_ID).asLong())) {
+              snapshots.add(snapshot);
+            }
+          }
+        } else {
+          JsonNode value = mapper.readTree(parser);
+          root.set(field, value);
+          if (REFS.equals(field)) {
+            value.forEach(ref -> referenced.add(ref.path(SNAPSHOT_ID).asLong()));
+            refsRead = true;
+          } else if (CURRENT_SNAPSHOT_ID.equals(field) && !value.isNull()) {
+            referenced.add(value.asLong());
+          }
+        }
+      }
+
+      // Without refs (format v1) the current snapshot is the only one referenced
+      retainSnapshots(root.get(SNAPSHOTS), referenced);
+      retainSnapshots(root.get(SNAPSHOT_LOG), referenced);
+      retainSnapshots(root.get(STATISTICS), referenced);
+      retainSnapshots(root.get(PARTITION_STATISTICS), referenced);
+      return TableMetadataParser.fromJson(file.location(), root);
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to read file: %s", file.location());
+    }
+  }
+
+  private static InputStream open(InputFile file) throws IOException {
+    InputStream in = file.newStream();
+    if (TableMetadataParser.Codec.fromFileName(file.location())
+        == TableMetadataParser.Codec.GZIP) {
+      return new GZIPInputStream(in);
+    }
+    return in;
+  }
+
+  private static void retainSnapshots(JsonNode entries, Set<Long> snapshotIds) {
+    if (entries == null || !entries.isArray()) {
+      return;
+    }
+    for (Iterator<JsonNode> it = entries.iterator(); it.hasNext(); ) {
+      if (!snapshotIds.contains(it.next().path(SNAPSHOT_ID).asLong())) {
+        it.remove();
+      }
+    }
+  }
+}
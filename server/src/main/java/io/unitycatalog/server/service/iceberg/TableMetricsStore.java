@@ -0,0 +1,249 @@
+package io.unitycatalog.server.service.iceberg;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.iceberg.metrics.CommitMetricsResult;
+import org.apache.iceberg.metrics.CommitReport;
+import org.apache.iceberg.metrics.CounterResult;
+import org.apache.iceberg.metrics.MetricsReport;
+import org.apache.iceberg.metrics.ScanMetricsResult;
+import org.apache.iceberg.metrics.ScanReport;
+import org.apache.iceberg.metrics.TimerResult;
+
+/**
+ * Keeps the scan and commit reports that Iceberg clients send to the report metrics endpoint. The
+ * most recent reports of every table are kept in a ring buffer of {@code
+ * server.iceberg.metricsReports.perTable} entries, next to running totals over all reports since
+ * startup. At most {@code server.iceberg.metricsReports.maxTables} tables are tracked; the ones
+ * reported least recently are dropped first.
+ */
+public class TableMetricsStore {
+
+  public static final String SCAN = "scan";
+  public static final String COMMIT = "commit";
+
+  private final int reportsPerTable;
+  private final Cache<String, TableMetrics> tables;
+
+  public TableMetricsStore() {
+    this(
+        Integer.parseInt(
+            ServerPropertiesUtils.getInstance()
+                .getProperty("server.iceberg.metricsReports.perTable", "100")),
+        Long.parseLong(
+            ServerPropertiesUtils.getInstance()
+                .getProperty("server.iceberg.metricsReports.maxTables", "10000")));
+  }
+
+  TableMetricsStore(int reportsPerTable, long maxTables) {
+    if (reportsPerTable <= 0 || maxTables <= 0) {
+      throw new IllegalArgumentException(
+          "Metrics reports kept per table and max number of tables must be positive");
+    }
+    this.reportsPerTable = reportsPerTable;
+    this.tables = Caffeine.newBuilder().maximumSize(maxTables).build();
+  }
+
+  /** Record a report of a table. Report types other than scan and commit are ignored. */
+  public void record(String tableName, MetricsReport report) {
+    Report summary;
+    if (report instanceof ScanReport) {
+      ScanReport scanReport = (ScanReport) report;
+      summary =
+          new Report(
+              SCAN,
+              System.currentTimeMillis(),
+              scanReport.snapshotId(),
+              null,
+              scanMetrics(scanReport.scanMetrics()));
+    } else if (report instanceof CommitReport) {
+      CommitReport commitReport = (CommitReport) report;
+      summary =
+          new Report(
+              COMMIT,
+              System.currentTimeMillis(),
+              commitReport.snapshotId(),
+              commitReport.operation(),
+              commitMetrics(commitReport.commitMetrics()));
+    } else {
+      return;
+    }
+    tables.get(tableName, name -> new TableMetrics(reportsPerTable)).add(summary);
+  }
+
+  /**
+   * Get the metrics of all tracked tables, the tables that spent the most time in scan planning
+   * first.
+   */
+  public List<TableMetricsSummary> getTableMetrics() {
+    Comparator<TableMetricsSummary> byPlanningTime =
+        Comparator.comparingLong(
+            summary -> {
+              MetricStats stats = summary.getScanMetrics().get("planning_duration_ms");
+              return stats != null ? stats.getTotal() : 0;
+            });
+    return tables.asMap().entrySet().stream()
+        .map(entry -> entry.getValue().summarize(entry.getKey()))
+        .sorted(byPlanningTime.reversed())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Get the metrics of a table.
+   *
+   * @return The metrics, or null if no reports were recorded for the table
+   */
+  public TableMetricsSummary getTableMetrics(String tableName) {
+    TableMetrics tableMetrics = tables.getIfPresent(tableName);
+    return tableMetrics != null ? tableMetrics.summarize(tableName) : null;
+  }
+
+  private static Map<String, Long> scanMetrics(ScanMetricsResult result) {
+    Map<String, Long> metrics = new LinkedHashMap<>();
+    if (result != null) {
+      put(metrics, "planning_duration_ms", result.totalPlanningDuration());
+      put(metrics, "result_data_files", result.resultDataFiles());
+      put(metrics, "result_delete_files", result.resultDeleteFiles());
+      put(metrics, "total_data_manifests", result.totalDataManifests());
+      put(metrics, "scanned_data_manifests", result.scannedDataManifests());
+      put(metrics, "skipped_data_manifests", result.skippedDataManifests());
+      put(metrics, "skipped_data_files", result.skippedDataFiles());
+      put(metrics, "total_file_size_bytes", result.totalFileSizeInBytes());
+    }
+    return metrics;
+  }
+
+  private static Map<String, Long> commitMetrics(CommitMetricsResult result) {
+    Map<String, Long> metrics = new LinkedHashMap<>();
+    if (result != null) {
+      put(metrics, "duration_ms", result.totalDuration());
+      put(metrics, "attempts", result.attempts());
+      put(metrics, "added_data_files", result.addedDataFiles());
+      put(metrics, "removed_data_files", result.removedDataFiles());
+      put(metrics, "added_delete_files", result.addedDeleteFiles());
+      put(metrics, "added_records", result.addedRecords());
+      put(metrics, "added_files_size_bytes", result.addedFilesSizeInBytes());
+    }
+    return metrics;
+  }
+
+  private static void put(Map<String, Long> metrics, String name, TimerResult timer) {
+    if (timer != null) {
+      metrics.put(name, timer.totalDuration().toMillis());
+    }
+  }
+
+  private static void put(Map<String, Long> metrics, String name, CounterResult counter) {
+    if (counter != null) {
+      metrics.put(name, counter.value());
+    }
+  }
+
+  /** Reports of one table. */
+  private static class TableMetrics {
+    private final int capacity;
+    private final Deque<Report> recentReports = new ArrayDeque<>();
+    private final Map<String, MetricStats> scanMetrics = new LinkedHashMap<>();
+    private final Map<String, MetricStats> commitMetrics = new LinkedHashMap<>();
+    private long scanReports;
+    private long commitReports;
+
+    TableMetrics(int capacity) {
+      this.capacity = capacity;
+    }
+
+    synchronized void add(Report report) {
+      if (recentReports.size() == capacity) {
+        recentReports.removeFirst();
+      }
+      recentReports.addLast(report);
+      Map<String, MetricStats> stats;
+      if (SCAN.equals(report.getType())) {
+        scanReports++;
+        stats = scanMetrics;
+      } else {
+        commitReports++;
+        stats = commitMetrics;
+      }
+      report
+          .getMetrics()
+          .forEach((name, value) -> stats.computeIfAbsent(name, n -> new MetricStats()).add(value));
+    }
+
+    synchronized TableMetricsSummary summarize(String tableName) {
+      return new TableMetricsSummary(
+          tableName,
+          scanReports,
+          commitReports,
+          copy(scanMetrics),
+          copy(commitMetrics),
+          new ArrayList<>(recentReports));
+    }
+
+    private static Map<String, MetricStats> copy(Map<String, MetricStats> stats) {
+      Map<String, MetricStats> copy = new LinkedHashMap<>();
+      stats.forEach((name, value) -> copy.put(name, value.copy()));
+      return copy;
+    }
+  }
+
+  /** Summary of a single scan or commit report. */
+  @Getter
+  @AllArgsConstructor
+  public static class Report {
+    private final String type;
+    private final long receivedAt;
+    private final long snapshotId;
+    // Operation of commit reports
+    private final String operation;
+    private final Map<String, Long> metrics;
+  }
+
+  /** Running count, total and maximum of a metric. */
+  @Getter
+  public static class MetricStats {
+    private long count;
+    private long total;
+    private long max;
+
+    void add(long value) {
+      count++;
+      total += value;
+      max = Math.max(max, value);
+    }
+
+    public double getMean() {
+      return count == 0 ? 0 : (double) total / count;
+    }
+
+    MetricStats copy() {
+      MetricStats copy = new MetricStats();
+      copy.count = count;
+      copy.total = total;
+      copy.max = max;
+      return copy;
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class TableMetricsSummary {
+    private final String table;
+    private final long scanReports;
+    private final long commitReports;
+    private final Map<String, MetricStats> scanMetrics;
+    private final Map<String, MetricStats> commitMetrics;
+    private final List<Report> recentReports;
+  }
+}
@@ -0,0 +1,225 @@
+package io.unitycatalog.server.utils;
+
+import com.linecorp.armeria.common.util.ThreadFactories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.unitycatalog.server.persist.utils.ServerPropertiesUtils;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the executor that runs blocking (database and storage) service calls off the event
+ * loops. The mode is picked with {@code server.blockingExecutor.mode} in server.properties:
+ *
+ * <ul>
+ *   <li>{@code bounded} (default): a fixed number of threads ({@code
+ *       server.blockingExecutor.threads}) and a bounded queue ({@code
+ *       server.blockingExecutor.queueSize}). Requests beyond that are rejected with 503.
+ *   <li>{@code virtual}: one virtual thread per task. Needs a Java 21+ runtime and falls back to
+ *       {@code bounded} otherwise.
+ * </ul>
+ *
+ * Queue depth, active tasks and rejections are published as {@code uc.blocking.executor.*} meters.
+ */
+public class BlockingTaskExecutors {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlockingTaskExecutors.class);
+
+  public static final String MODE_BOUNDED = "bounded";
+  public static final String MODE_VIRTUAL = "virtual";
+
+  private static final String THREAD_NAME_PREFIX = "uc-blocking";
+  private static final int DEFAULT_THREADS = 200;
+  private static final int DEFAULT_QUEUE_SIZE = 1000;
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private BlockingTaskExecutors() {}
+
+  public static ScheduledExecutorService fromServerProperties() {
+    ServerPropertiesUtils properties = ServerPropertiesUtils.getInstance();
+    String mode =
+        properties
+            .getProperty("server.blockingExecutor.mode", MODE_BOUNDED)
+            .toLowerCase(Locale.ROOT);
+    int threads =
+        Integer.parseInt(
+            properties.getProperty(
+                "server.blockingExecutor.threads", String.valueOf(DEFAULT_THREADS)));
+    int queueSize =
+        Integer.parseInt(
+            properties.getProperty(
+                "server.blockingExecutor.queueSize", String.valueOf(DEFAULT_QUEUE_SIZE)));
+    return create(mode, threads, queueSize);
+  }
+
+  public static ScheduledExecutorService create(String mode, int threads, int queueSize) {
+    if (threads <= 0 || queueSize <= 0) {
+      throw new IllegalArgumentException(
+          "Blocking executor threads and queue size must be positive");
+    }
+    Counter rejected =
+        Counter.builder("uc.blocking.executor.rejected")
+            .description("Blocking tasks rejected because the executor was saturated")
+            .register(Metrics.globalRegistry);
+    RejectedExecutionHandler rejectionHandler =
+        (task, executor) -> {
+          rejected.increment();
+          throw new RejectedExecutionException("Blocking task executor is saturated");
+        };
+    ThreadFactory platformThreadFactory =
+        ThreadFactories.builder(THREAD_NAME_PREFIX).daemon(true).eventLoop(false).build();
+
+    if (MODE_VIRTUAL.equals(mode)) {
+      ThreadFactory virtualThreadFactory = virtualThreadFactory();
+      if (virtualThreadFactory != null) {
+        VirtualThreadExecutor executor =
+            new VirtualThreadExecutor(
+                platformThreadFactory, virtualThreadFactory, rejectionHandler);
+        Gauge.builder(
+                "uc.blocking.executor.active", executor, VirtualThreadExecutor::getActiveTasks)
+            .description("Blocking tasks currently running")
+            .register(Metrics.globalRegistry);
+        LOGGER.info("Running blocking tasks on virtual threads");
+        return executor;
+      }
+      LOGGER.warn("Virtual threads need Java 21 or later, falling back to a bounded executor");
+    } else if (!MODE_BOUNDED.equals(mode)) {
+      throw new IllegalArgumentException("Unknown blocking executor mode: " + mode);
+    }
+
+    BoundedExecutor executor =
+        new BoundedExecutor(threads, queueSize, platformThreadFactory, rejectionHandler);
+    Gauge.builder("uc.blocking.executor.queued", executor, e -> e.getQueue().size())
+        .description("Blocking tasks waiting for a thread")
+        .register(Metrics.globalRegistry);
+    Gauge.builder("uc.blocking.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Blocking tasks currently running")
+        .register(Metrics.globalRegistry);
+    LOGGER.info("Running blocking tasks on {} threads with a queue of {}", threads, queueSize);
+    return executor;
+  }
+
+  private static ThreadFactory virtualThreadFactory() {
+    // Looked up reflectively since the server is still compiled for Java 17
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Method name = builderClass.getMethod("name", String.class, long.class);
+      builder = name.invoke(builder, THREAD_NAME_PREFIX + "-virtual-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /** Fixed-size pool whose queue is capped, so saturation shows up as rejections. */
+  private static class BoundedExecutor extends ScheduledThreadPoolExecutor {
+    private final int maxQueueSize;
+
+    BoundedExecutor(
+        int threads,
+        int maxQueueSize,
+        ThreadFactory threadFactory,
+        RejectedExecutionHandler rejectionHandler) {
+      super(threads, threadFactory, rejectionHandler);
+      this.maxQueueSize = maxQueueSize;
+      setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+      allowCoreThreadTimeOut(true);
+      setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(
+        Runnable runnable, RunnableScheduledFuture<V> task) {
+      checkCapacity(runnable);
+      return task;
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(
+        Callable<V> callable, RunnableScheduledFuture<V> task) {
+      checkCapacity(task);
+      return task;
+    }
+
+    private void checkCapacity(Runnable task) {
+      if (getQueue().size() >= maxQueueSize) {
+        getRejectedExecutionHandler().rejectedExecution(task, this);
+      }
+    }
+  }
+
+  /**
+   * Starts a new virtual thread for every task. Delayed and periodic tasks, which Armeria rarely
+   * submits, still run on a single platform thread.
+   */
+  private static class VirtualThreadExecutor extends ScheduledThreadPoolExecutor {
+    private final ThreadFactory virtualThreadFactory;
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    VirtualThreadExecutor(
+        ThreadFactory schedulerThreadFactory,
+        ThreadFactory virtualThreadFactory,
+        RejectedExecutionHandler rejectionHandler) {
+      super(1, schedulerThreadFactory, rejectionHandler);
+      this.virtualThreadFactory = virtualThreadFactory;
+      setRemoveOnCancelPolicy(true);
+    }
+
+    int getActiveTasks() {
+      return activeTasks.get();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      if (isShutdown()) {
+        getRejectedExecutionHandler().rejectedExecution(command, this);
+        return;
+      }
+      activeTasks.incrementAndGet();
+      virtualThreadFactory
+          .newThread(
+              () -> {
+                try {
+                  command.run();
+                } finally {
+                  activeTasks.decrementAndGet();
+                }
+              })
+          .start();
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+      return submit(task, null);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+      FutureTask<T> future = new FutureTask<>(task, result);
+      execute(future);
+      return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+      FutureTask<T> future = new FutureTask<>(task);
+      execute(future);
+      return future;
+    }
+  }
+}
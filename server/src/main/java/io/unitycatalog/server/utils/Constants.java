@@ -5,4 +5,5 @@ public class Constants {
   public static final String SCHEMA = "schema";
   public static final String TABLE = "table";
   public static final String FUNCTION = "function";
+  public static final String VOLUME = "volume";
 }
@@ -0,0 +1,277 @@
+package io.unitycatalog.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.unitycatalog.client.model.CreateCatalog;
+import io.unitycatalog.client.model.CreateSchema;
+import io.unitycatalog.client.model.SchemaInfo;
+import io.unitycatalog.server.base.BaseServerTest;
+import io.unitycatalog.server.base.catalog.CatalogOperations;
+import io.unitycatalog.server.base.schema.SchemaOperations;
+import io.unitycatalog.server.sdk.catalog.SdkCatalogOperations;
+import io.unitycatalog.server.sdk.schema.SdkSchemaOperations;
+import io.unitycatalog.server.utils.JsonUtils;
+import io.unitycatalog.server.utils.TestUtils;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class URLTranscoderTest extends BaseServerTest {
+
+  private static final String SCHEMAS_PATH = "/api/2.1/unity-catalog/schemas/";
+  private static final String[] SEPARATORS = {"%1F", "%1f", "."};
+
+  private CatalogOperations catalogOperations;
+  private SchemaOperations schemaOperations;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp();
+    catalogOperations = new SdkCatalogOperations(TestUtils.createApiClient(serverConfig));
+    schemaOperations = new SdkSchemaOperations(TestUtils.createApiClient(serverConfig));
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    try {
+      catalogOperations.deleteCatalog(TestUtils.CATALOG_NAME, Optional.of(true));
+    } catch (Exception e) {
+      // Ignore
+    }
+  }
+
+  @Test
+  public void testEncodedFullNames() throws Exception {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    schemaOperations.createSchema(
+        new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    for (String separator : SEPARATORS) {
+      String path = SCHEMAS_PATH + TestUtils.CATALOG_NAME + separator + TestUtils.SCHEMA_NAME;
+      HttpResponse<String> response =
+          client.send(
+              HttpRequest.newBuilder(URI.create(serverConfig.getServerUrl() + path)).build(),
+              HttpResponse.BodyHandlers.ofString());
+      assertThat(response.statusCode()).isEqualTo(200);
+      SchemaInfo schemaInfo = JsonUtils.getInstance().readValue(response.body(), SchemaInfo.class);
+      assertThat(schemaInfo.getFullName()).isEqualTo(TestUtils.SCHEMA_FULL_NAME);
+    }
+  }
+
+  @Test
+  public void testHttp2() throws Exception {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    schemaOperations.createSchema(
+        new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+
+    // Upgrade from HTTP/1, later requests are sent as HTTP/2 frames
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+    for (String separator : SEPARATORS) {
+      String path = SCHEMAS_PATH + TestUtils.CATALOG_NAME + separator + TestUtils.SCHEMA_NAME;
+      HttpResponse<String> response =
+          client.send(
+              HttpRequest.newBuilder(URI.create(serverConfig.getServerUrl() + path)).build(),
+              HttpResponse.BodyHandlers.ofString());
+      assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+      assertThat(response.statusCode()).isEqualTo(200);
+      SchemaInfo schemaInfo = JsonUtils.getInstance().readValue(response.body(), SchemaInfo.class);
+      assertThat(schemaInfo.getFullName()).isEqualTo(TestUtils.SCHEMA_FULL_NAME);
+    }
+
+    // Prior knowledge, the connection starts with the HTTP/2 preface
+    URI uri = URI.create(serverConfig.getServerUrl());
+    for (String separator : SEPARATORS) {
+      String path = SCHEMAS_PATH + TestUtils.CATALOG_NAME + separator + TestUtils.SCHEMA_NAME;
+      assertThat(getWithPriorKnowledge(uri, path).status().toString()).isEqualTo("200");
+    }
+  }
+
+  @Test
+  public void testTls() throws Exception {
+    Server server =
+        Server.builder()
+            .https(0)
+            .tlsSelfSigned()
+            .service(
+                "/names/{name}",
+                (ctx, req) -> com.linecorp.armeria.common.HttpResponse.of(ctx.pathParam("name")))
+            .childChannelPipelineCustomizer(URLTranscoder::install)
+            .build();
+    server.start().join();
+    try {
+      String url = "https://localhost:" + server.activeLocalPort(SessionProtocol.HTTPS);
+      // HTTP/1 and HTTP/2 are negotiated with ALPN
+      for (HttpClient.Version version : HttpClient.Version.values()) {
+        HttpClient client =
+            HttpClient.newBuilder().version(version).sslContext(trustAllSslContext()).build();
+        for (String separator : SEPARATORS) {
+          HttpResponse<String> response =
+              client.send(
+                  HttpRequest.newBuilder(URI.create(url + "/names/a" + separator + "b")).build(),
+                  HttpResponse.BodyHandlers.ofString());
+          assertThat(response.version()).isEqualTo(version);
+          assertThat(response.statusCode()).isEqualTo(200);
+          assertThat(response.body()).isEqualTo("a.b");
+        }
+      }
+    } finally {
+      server.stop().join();
+    }
+  }
+
+  @Test
+  public void testFragmentedRequestLine() throws Exception {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    schemaOperations.createSchema(
+        new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+
+    URI uri = URI.create(serverConfig.getServerUrl());
+    try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+      OutputStream out = socket.getOutputStream();
+      // Send fewer bytes than needed for protocol detection first
+      out.write("GE".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      Thread.sleep(100);
+      String rest =
+          "T "
+              + SCHEMAS_PATH
+              + TestUtils.CATALOG_NAME
+              + "%1F"
+              + TestUtils.SCHEMA_NAME
+              + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+      out.write(rest.getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      BufferedReader in =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      assertThat(in.readLine()).isEqualTo("HTTP/1.1 200 OK");
+    }
+  }
+
+  private static Http2Headers getWithPriorKnowledge(URI uri, String path) throws Exception {
+    EventLoopGroup group = new NioEventLoopGroup(1);
+    try {
+      Channel channel =
+          new Bootstrap()
+              .group(group)
+              .channel(NioSocketChannel.class)
+              .handler(
+                  new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                      ch.pipeline()
+                          .addLast(
+                              Http2FrameCodecBuilder.forClient().build(),
+                              new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+                    }
+                  })
+              .connect(uri.getHost(), uri.getPort())
+              .sync()
+              .channel();
+      CompletableFuture<Http2Headers> response = new CompletableFuture<>();
+      Http2StreamChannel stream =
+          new Http2StreamChannelBootstrap(channel)
+              .handler(
+                  new SimpleChannelInboundHandler<Http2HeadersFrame>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, Http2HeadersFrame msg) {
+                      response.complete(msg.headers());
+                    }
+                  })
+              .open()
+              .sync()
+              .getNow();
+      Http2Headers headers =
+          new DefaultHttp2Headers()
+              .method("GET")
+              .scheme("http")
+              .authority(uri.getAuthority())
+              .path(path);
+      stream.writeAndFlush(new DefaultHttp2HeadersFrame(headers, true));
+      return response.get(10, TimeUnit.SECONDS);
+    } finally {
+      group.shutdownGracefully();
+    }
+  }
+
+  private static SSLContext trustAllSslContext() throws Exception {
+    // An extended trust manager also skips the host name check of the self-signed certificate
+    TrustManager trustAll =
+        new X509ExtendedTrustManager() {
+          @Override
+          public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+          @Override
+          public void checkClientTrusted(
+              X509Certificate[] chain, String authType, Socket socket) {}
+
+          @Override
+          public void checkClientTrusted(
+              X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+          @Override
+          public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+          @Override
+          public void checkServerTrusted(
+              X509Certificate[] chain, String authType, Socket socket) {}
+
+          @Override
+          public void checkServerTrusted(
+              X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+          @Override
+          public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+          }
+        };
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, new TrustManager[] {trustAll}, null);
+    return sslContext;
+  }
+
+  @Test
+  public void testTranscode() {
+    assertThat(URLTranscoder.transcode("/schemas/a%1Fb%1fc?x=d%1Fe"))
+        .isEqualTo("/schemas/a.b.c?x=d.e");
+    assertThat(URLTranscoder.transcode("/schemas/a.b%20c")).isEqualTo("/schemas/a.b%20c");
+    assertThat(URLTranscoder.transcode(null)).isNull();
+  }
+}
@@ -110,6 +110,8 @@ public abstract class BaseTableCRUDTest extends BaseCRUDTest {
     Iterable<TableInfo> tables =
         tableOperations.listTables(TestUtils.CATALOG_NAME, TestUtils.SCHEMA_NAME);
     assertThat(tables).hasSize(100);
+    assertThat(tables)
+        .allSatisfy(table -> assertThat(table.getProperties()).isEqualTo(TestUtils.PROPERTIES));
   }
 
   private void verifyTableSorting() throws ApiException {
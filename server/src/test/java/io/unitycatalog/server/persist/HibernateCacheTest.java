@@ -0,0 +1,95 @@
+package io.unitycatalog.server.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.model.CatalogInfo;
+import io.unitycatalog.server.model.CreateCatalog;
+import io.unitycatalog.server.model.UpdateCatalog;
+import io.unitycatalog.server.persist.dao.CatalogInfoDAO;
+import io.unitycatalog.server.persist.utils.HibernateUtils;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HibernateCacheTest {
+
+  private static final String CATALOG_NAME = "cached_catalog";
+
+  private final CatalogRepository catalogRepository = CatalogRepository.getInstance();
+  private Statistics statistics;
+
+  @BeforeAll
+  public static void setUpDatabase() {
+    System.setProperty("server.env", "test");
+  }
+
+  @BeforeEach
+  public void setUp() {
+    statistics = HibernateUtils.getSessionFactory().getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    statistics.setStatisticsEnabled(false);
+    try {
+      catalogRepository.deleteCatalog(CATALOG_NAME, true);
+    } catch (BaseException e) {
+      // Already deleted
+    }
+  }
+
+  @Test
+  public void testLookupsAreServedFromTheCache() {
+    UUID catalogId =
+        UUID.fromString(
+            catalogRepository.addCatalog(new CreateCatalog().name(CATALOG_NAME)).getId());
+
+    catalogRepository.getCatalog(CATALOG_NAME);
+    long queryHits = statistics.getQueryCacheHitCount();
+    catalogRepository.getCatalog(CATALOG_NAME);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(queryHits + 1);
+
+    loadCatalog(catalogId);
+    long entityHits = statistics.getSecondLevelCacheHitCount();
+    long statements = statistics.getPrepareStatementCount();
+    loadCatalog(catalogId);
+    assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(entityHits + 1);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+  }
+
+  @Test
+  public void testUpdatesAndDeletesEvictEntries() {
+    UUID catalogId =
+        UUID.fromString(
+            catalogRepository.addCatalog(new CreateCatalog().name(CATALOG_NAME)).getId());
+    catalogRepository.getCatalog(CATALOG_NAME);
+    loadCatalog(catalogId);
+
+    // The cached query result is dropped and the cached entity replaced
+    long queryMisses = statistics.getQueryCacheMissCount();
+    catalogRepository.updateCatalog(CATALOG_NAME, new UpdateCatalog().comment("updated"));
+    CatalogInfo catalogInfo = catalogRepository.getCatalog(CATALOG_NAME);
+    assertThat(catalogInfo.getComment()).isEqualTo("updated");
+    assertThat(statistics.getQueryCacheMissCount()).isGreaterThan(queryMisses);
+    assertThat(loadCatalog(catalogId).getComment()).isEqualTo("updated");
+
+    catalogRepository.deleteCatalog(CATALOG_NAME, false);
+    assertThat(loadCatalog(catalogId)).isNull();
+    assertThatThrownBy(() -> catalogRepository.getCatalog(CATALOG_NAME))
+        .isInstanceOf(BaseException.class);
+  }
+
+  private static CatalogInfoDAO loadCatalog(UUID catalogId) {
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      return session.get(CatalogInfoDAO.class, catalogId);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.unitycatalog.server.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class NamespaceCacheTest {
+
+  @Test
+  public void testInvalidation() {
+    NamespaceCache cache = new NamespaceCache(100, Duration.ofMinutes(1), Ticker.systemTicker());
+    UUID catalogId = UUID.randomUUID();
+    UUID schemaId = UUID.randomUUID();
+    AtomicInteger loads = new AtomicInteger();
+
+    assertThat(cache.getCatalogId("catalog", name -> countLoad(loads, catalogId)))
+        .isEqualTo(catalogId);
+    assertThat(cache.getCatalogId("catalog", name -> countLoad(loads, catalogId)))
+        .isEqualTo(catalogId);
+    assertThat(cache.getSchemaId(catalogId, "schema", name -> countLoad(loads, schemaId)))
+        .isEqualTo(schemaId);
+    assertThat(loads).hasValue(2);
+    assertThat(cache.getCatalogStats().hitCount()).isEqualTo(1);
+    assertThat(cache.getCatalogStats().missCount()).isEqualTo(1);
+
+    // Missing entities are not cached
+    assertThat(cache.getSchemaId(catalogId, "missing", name -> countLoad(loads, null))).isNull();
+    assertThat(cache.getSchemaId(catalogId, "missing", name -> countLoad(loads, null))).isNull();
+    assertThat(loads).hasValue(4);
+
+    cache.invalidateSchema(catalogId, "schema");
+    cache.getSchemaId(catalogId, "schema", name -> countLoad(loads, schemaId));
+    assertThat(loads).hasValue(5);
+
+    // Deleting a catalog also drops its schemas
+    cache.invalidateCatalog("catalog", catalogId);
+    cache.getCatalogId("catalog", name -> countLoad(loads, catalogId));
+    cache.getSchemaId(catalogId, "schema", name -> countLoad(loads, schemaId));
+    assertThat(loads).hasValue(7);
+  }
+
+  @Test
+  public void testEntriesExpire() {
+    AtomicLong nanos = new AtomicLong();
+    NamespaceCache cache = new NamespaceCache(100, Duration.ofSeconds(30), nanos::get);
+    AtomicInteger loads = new AtomicInteger();
+    UUID catalogId = UUID.randomUUID();
+
+    cache.getCatalogId("catalog", name -> countLoad(loads, catalogId));
+    nanos.addAndGet(Duration.ofSeconds(29).toNanos());
+    cache.getCatalogId("catalog", name -> countLoad(loads, catalogId));
+    assertThat(loads).hasValue(1);
+
+    // The catalog was recreated on another server, its new id is picked up after expiry
+    UUID recreatedId = UUID.randomUUID();
+    nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertThat(cache.getCatalogId("catalog", name -> countLoad(loads, recreatedId)))
+        .isEqualTo(recreatedId);
+    assertThat(loads).hasValue(2);
+  }
+
+  private static UUID countLoad(AtomicInteger loads, UUID id) {
+    loads.incrementAndGet();
+    return id;
+  }
+}
@@ -0,0 +1,255 @@
+package io.unitycatalog.server.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.unitycatalog.server.base.BaseServerTest;
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.model.ColumnTypeName;
+import io.unitycatalog.server.model.CreateCatalog;
+import io.unitycatalog.server.model.CreateSchema;
+import io.unitycatalog.server.model.DataSourceFormat;
+import io.unitycatalog.server.model.TableType;
+import io.unitycatalog.server.model.VolumeType;
+import io.unitycatalog.server.persist.dao.ColumnInfoDAO;
+import io.unitycatalog.server.persist.dao.FunctionInfoDAO;
+import io.unitycatalog.server.persist.dao.FunctionParameterInfoDAO;
+import io.unitycatalog.server.persist.dao.PropertyDAO;
+import io.unitycatalog.server.persist.dao.TableInfoDAO;
+import io.unitycatalog.server.persist.dao.VolumeInfoDAO;
+import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.utils.Constants;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SchemaRepositoryTest extends BaseServerTest {
+  private static final String CATALOG_NAME = "cascade_catalog";
+
+  // More than one delete batch
+  private static final int TABLE_COUNT = 1500;
+
+  @TempDir Path tempDir;
+
+  @AfterEach
+  public void tearDown() {
+    // The storage under the temp dir is gone, drop the purges the server has not run yet
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      Transaction tx = session.beginTransaction();
+      session
+          .createMutationQuery("DELETE FROM StoragePurgeDAO WHERE storageLocation LIKE :prefix")
+          .setParameter("prefix", locationPrefix() + "%")
+          .executeUpdate();
+      tx.commit();
+    }
+    super.tearDown();
+  }
+
+  @Test
+  public void testForceDeleteSchema() {
+    CatalogRepository.getInstance().addCatalog(new CreateCatalog().name(CATALOG_NAME));
+    try {
+      UUID schemaId = createSchemaWithChildren("big_schema", TABLE_COUNT);
+      SchemaRepository schemaRepository = SchemaRepository.getInstance();
+
+      assertThatThrownBy(() -> schemaRepository.deleteSchema(CATALOG_NAME + ".big_schema", false))
+          .isInstanceOf(BaseException.class)
+          .hasMessageContaining("Cannot delete schema with tables");
+
+      try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+        Transaction tx = session.beginTransaction();
+        UUID catalogId = schemaRepository.getCatalogId(session, CATALOG_NAME);
+        schemaRepository.deleteSchema(session, catalogId, CATALOG_NAME, "big_schema", true);
+        assertThat(countChildren(session, schemaId)).isZero();
+        // Counted before commit, so the purges cannot have run yet. Half of the tables and one of
+        // the volumes are managed.
+        assertThat(countPurges(session)).isEqualTo(TABLE_COUNT / 2 + 1);
+        tx.commit();
+      }
+
+      // Children deleted in separate batch transactions before the schema itself
+      UUID smallSchemaId = createSchemaWithChildren("small_schema", 10);
+      schemaRepository.deleteSchema(CATALOG_NAME + ".small_schema", true);
+      assertThat(countChildren(smallSchemaId)).isZero();
+
+      createSchemaWithChildren("last_schema", 10);
+    } finally {
+      CatalogRepository.getInstance().deleteCatalog(CATALOG_NAME, true);
+    }
+    assertThat(countChildren(null)).isZero();
+  }
+
+  @Test
+  public void testForceDeleteFailsOnConcurrentChanges() {
+    CatalogRepository catalogRepository = CatalogRepository.getInstance();
+    SchemaRepository schemaRepository = SchemaRepository.getInstance();
+    assertThatThrownBy(() -> catalogRepository.deleteCatalog(CATALOG_NAME, true))
+        .isInstanceOf(BaseException.class)
+        .hasMessage("Catalog not found: " + CATALOG_NAME);
+
+    catalogRepository.addCatalog(new CreateCatalog().name(CATALOG_NAME));
+    try {
+      assertThatThrownBy(() -> schemaRepository.deleteSchema(CATALOG_NAME + ".missing", true))
+          .isInstanceOf(BaseException.class)
+          .hasMessage("Schema not found: " + CATALOG_NAME + ".missing");
+
+      // Rejected before any batch is deleted
+      UUID schemaId = createSchemaWithChildren("race_schema", 10);
+      long children = countChildren(schemaId);
+      assertThatThrownBy(() -> catalogRepository.deleteCatalog(CATALOG_NAME, false))
+          .isInstanceOf(BaseException.class)
+          .hasMessageContaining("Cannot delete catalog with schemas");
+      assertThat(countChildren(schemaId)).isEqualTo(children);
+
+      // A table created after the batches fails the delete of the schema instead of being deleted
+      try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+        schemaRepository.deleteChildrenInBatches(session, schemaId);
+        assertThat(countChildren(session, schemaId)).isZero();
+        Transaction tx = session.beginTransaction();
+        createTable(session, schemaId, "race_schema", 0);
+        tx.commit();
+
+        UUID catalogId = schemaRepository.getCatalogId(session, CATALOG_NAME);
+        Transaction deleteTx = session.beginTransaction();
+        assertThatThrownBy(
+                () ->
+                    schemaRepository.deleteSchema(
+                        session, catalogId, CATALOG_NAME, "race_schema", false))
+            .isInstanceOf(BaseException.class)
+            .hasMessageContaining("Cannot delete schema with tables");
+        deleteTx.rollback();
+      }
+      assertThat(countChildren(schemaId)).isPositive();
+      assertThat(schemaRepository.getSchema(CATALOG_NAME + ".race_schema")).isNotNull();
+    } finally {
+      catalogRepository.deleteCatalog(CATALOG_NAME, true);
+    }
+    assertThat(countChildren(null)).isZero();
+  }
+
+  private String locationPrefix() {
+    return tempDir.toUri().toString();
+  }
+
+  private UUID createSchemaWithChildren(String schemaName, int tableCount) {
+    UUID schemaId =
+        UUID.fromString(
+            SchemaRepository.getInstance()
+                .createSchema(new CreateSchema().catalogName(CATALOG_NAME).name(schemaName))
+                .getSchemaId());
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      Transaction tx = session.beginTransaction();
+      for (int i = 0; i < tableCount; i++) {
+        createTable(session, schemaId, schemaName, i);
+      }
+      for (VolumeType type : VolumeType.values()) {
+        session.persist(
+            VolumeInfoDAO.builder()
+                .id(UUID.randomUUID())
+                .name("volume_" + type.getValue().toLowerCase())
+                .schemaId(schemaId)
+                .volumeType(type.getValue())
+                .storageLocation(locationPrefix() + schemaName + "/volume_" + type.getValue())
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build());
+      }
+      FunctionInfoDAO function =
+          FunctionInfoDAO.builder()
+              .id(UUID.randomUUID())
+              .name("function")
+              .schemaId(schemaId)
+              .createdAt(System.currentTimeMillis())
+              .build();
+      function.setInputParams(
+          List.of(
+              FunctionParameterInfoDAO.builder()
+                  .id(UUID.randomUUID())
+                  .name("cascade_param")
+                  .inputOrReturn(FunctionParameterInfoDAO.InputOrReturnEnum.INPUT)
+                  .typeText("INTEGER")
+                  .typeName(ColumnTypeName.INT)
+                  .function(function)
+                  .build()));
+      session.persist(function);
+      tx.commit();
+    }
+    return schemaId;
+  }
+
+  private void createTable(Session session, UUID schemaId, String schemaName, int i) {
+    TableType type = i % 2 == 0 ? TableType.MANAGED : TableType.EXTERNAL;
+    TableInfoDAO table =
+        TableInfoDAO.builder()
+            .id(UUID.randomUUID())
+            .name("table_" + i)
+            .schemaId(schemaId)
+            .type(type.getValue())
+            .dataSourceFormat(DataSourceFormat.DELTA.name())
+            .url(locationPrefix() + schemaName + "/table_" + i)
+            .createdAt(new Date())
+            .build();
+    table.setColumns(
+        List.of(
+            ColumnInfoDAO.builder()
+                .id(UUID.randomUUID())
+                .name("cascade_column")
+                .typeText("INTEGER")
+                .typeJson("{\"type\": \"integer\"}")
+                .typeName(ColumnTypeName.INT.name())
+                .nullable(true)
+                .table(table)
+                .build()));
+    session.persist(table);
+    PropertyDAO.from(Map.of("cascade", "true"), table.getId(), Constants.TABLE)
+        .forEach(session::persist);
+  }
+
+  /** Count the children created by this test, of one schema or of all schemas. */
+  private long countChildren(UUID schemaId) {
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      return countChildren(session, schemaId);
+    }
+  }
+
+  private long countChildren(Session session, UUID schemaId) {
+    String schemaFilter = schemaId == null ? "" : " AND schemaId = :schemaId";
+    long count = 0;
+    for (String hql :
+        List.of(
+            "SELECT COUNT(*) FROM TableInfoDAO WHERE url LIKE :prefix" + schemaFilter,
+            "SELECT COUNT(*) FROM VolumeInfoDAO WHERE storageLocation LIKE :prefix"
+                + schemaFilter)) {
+      Query<Long> query =
+          session.createQuery(hql, Long.class).setParameter("prefix", locationPrefix() + "%");
+      if (schemaId != null) {
+        query.setParameter("schemaId", schemaId);
+      }
+      count += query.getSingleResult();
+    }
+    for (String hql :
+        List.of(
+            "SELECT COUNT(*) FROM ColumnInfoDAO WHERE name = 'cascade_column'",
+            "SELECT COUNT(*) FROM PropertyDAO WHERE key = 'cascade'",
+            "SELECT COUNT(*) FROM FunctionParameterInfoDAO WHERE name = 'cascade_param'")) {
+      count += session.createQuery(hql, Long.class).getSingleResult();
+    }
+    return count;
+  }
+
+  private long countPurges(Session session) {
+    return session
+        .createQuery(
+            "SELECT COUNT(*) FROM StoragePurgeDAO WHERE storageLocation LIKE :prefix", Long.class)
+        .setParameter("prefix", locationPrefix() + "%")
+        .getSingleResult();
+  }
+}
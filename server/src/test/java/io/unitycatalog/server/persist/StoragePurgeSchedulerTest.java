@@ -0,0 +1,177 @@
+package io.unitycatalog.server.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.unitycatalog.server.model.DataSourceFormat;
+import io.unitycatalog.server.model.TableType;
+import io.unitycatalog.server.persist.dao.StoragePurgeDAO;
+import io.unitycatalog.server.persist.dao.TableInfoDAO;
+import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.utils.Constants;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Runs purges directly, without a server whose own scheduler would compete for them. */
+public class StoragePurgeSchedulerTest {
+
+  @TempDir Path tempDir;
+
+  @BeforeAll
+  public static void setUpDatabase() {
+    // The in-memory database of the tests, as set up by BaseServerTest
+    System.setProperty("server.env", "test");
+  }
+
+  @Test
+  public void testPurge() throws Exception {
+    Path tableDir = Files.createDirectories(tempDir.resolve("table/_delta_log"));
+    Files.writeString(tableDir.resolve("00000000000000000000.json"), "{}");
+    StoragePurgeDAO purge = schedulePurge(tempDir.resolve("table").toUri().toString());
+
+    newScheduler(3).purge(purge);
+    assertThat(tempDir.resolve("table")).doesNotExist();
+    assertThat(findPurge(purge.getEntityId())).isEmpty();
+  }
+
+  @Test
+  public void testPurgeOfMissingDirectory() {
+    StoragePurgeDAO purge = schedulePurge(tempDir.resolve("missing").toUri().toString());
+
+    newScheduler(3).purge(purge);
+    assertThat(findPurge(purge.getEntityId())).isEmpty();
+  }
+
+  @Test
+  public void testFailedPurgesAreRetriedThenGivenUp() {
+    // Locations that do not normalize are rejected
+    StoragePurgeDAO purge = schedulePurge(tempDir.toUri() + "table/../other");
+    StoragePurgeScheduler scheduler = newScheduler(2);
+    Date scheduledAt = purge.getNextAttemptAt();
+
+    scheduler.purge(purge);
+    StoragePurgeDAO retried = findPurge(purge.getEntityId()).orElseThrow();
+    assertThat(retried.getStatus()).isEqualTo(StoragePurgeDAO.PENDING);
+    assertThat(retried.getAttempts()).isEqualTo(1);
+    assertThat(retried.getLastError()).contains("Normalization failed");
+    assertThat(retried.getNextAttemptAt()).isAfter(scheduledAt);
+
+    scheduler.purge(retried);
+    StoragePurgeDAO failed = findPurge(purge.getEntityId()).orElseThrow();
+    assertThat(failed.getStatus()).isEqualTo(StoragePurgeDAO.FAILED);
+    assertThat(failed.getAttempts()).isEqualTo(2);
+    assertThat(StoragePurgeRepository.getInstance().countPurges())
+        .containsKey(StoragePurgeDAO.FAILED);
+  }
+
+  @Test
+  public void testPurgesAreClaimedOnce() throws Exception {
+    Path table = Files.createDirectories(tempDir.resolve("table"));
+    StoragePurgeDAO purge = schedulePurge(table.toUri().toString());
+    // Another server read the same due purge
+    StoragePurgeDAO sameOnOtherServer = findPurge(purge.getEntityId()).orElseThrow();
+
+    newScheduler(3).purge(purge);
+    assertThat(table).doesNotExist();
+    assertThat(findPurge(purge.getEntityId())).isEmpty();
+
+    // The other server fails to claim the purge and leaves the location alone
+    Files.createDirectories(table);
+    newScheduler(3).purge(sameOnOtherServer);
+    assertThat(table).exists();
+  }
+
+  @Test
+  public void testExpiredLeasesAreTakenOver() throws Exception {
+    Path table = Files.createDirectories(tempDir.resolve("table"));
+    StoragePurgeDAO purge = schedulePurge(table.toUri().toString());
+    StoragePurgeDAO readBeforeClaim = findPurge(purge.getEntityId()).orElseThrow();
+    StoragePurgeRepository repository = StoragePurgeRepository.getInstance();
+    // Claimed by a server that went away, its lease has expired
+    assertThat(repository.claimPurge(purge, new Date(System.currentTimeMillis() - 60_000)))
+        .isTrue();
+    assertThat(repository.claimPurge(readBeforeClaim, new Date())).isFalse();
+
+    StoragePurgeDAO expired =
+        repository.findDuePurges(1000).stream()
+            .filter(due -> due.getEntityId().equals(purge.getEntityId()))
+            .findFirst()
+            .orElseThrow();
+    assertThat(expired.getStatus()).isEqualTo(StoragePurgeDAO.RUNNING);
+    newScheduler(3).purge(expired);
+    assertThat(table).doesNotExist();
+    assertThat(findPurge(purge.getEntityId())).isEmpty();
+  }
+
+  @Test
+  public void testLocationsOfLiveEntitiesAreNotPurged() throws Exception {
+    Path table = Files.createDirectories(tempDir.resolve("tables/my_table"));
+    StoragePurgeDAO purge = schedulePurge(table.toUri().toString());
+    StoragePurgeRepository repository = StoragePurgeRepository.getInstance();
+    assertThat(repository.isLocationInUse(purge.getStorageLocation())).isFalse();
+
+    // A table of the same name was created before the purge ran
+    TableInfoDAO recreated =
+        TableInfoDAO.builder()
+            .id(UUID.randomUUID())
+            .name("my_table")
+            .schemaId(UUID.randomUUID())
+            .type(TableType.MANAGED.getValue())
+            .dataSourceFormat(DataSourceFormat.DELTA.name())
+            .url(tempDir.resolve("tables/my_table").toUri().toString())
+            .createdAt(new Date())
+            .build();
+    inTransaction(session -> session.persist(recreated));
+    try {
+      // The underscore in the name does not match any character
+      assertThat(repository.isLocationInUse(tempDir.resolve("tables/myXtable").toUri().toString()))
+          .isFalse();
+
+      newScheduler(3).purge(purge);
+      assertThat(table).exists();
+      StoragePurgeDAO failed = findPurge(purge.getEntityId()).orElseThrow();
+      assertThat(failed.getStatus()).isEqualTo(StoragePurgeDAO.FAILED);
+      assertThat(failed.getLastError()).contains("used by a live table or volume");
+    } finally {
+      inTransaction(session -> session.remove(session.merge(recreated)));
+    }
+  }
+
+  private static void inTransaction(Consumer<Session> work) {
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      Transaction tx = session.beginTransaction();
+      work.accept(session);
+      tx.commit();
+    }
+  }
+
+  private static StoragePurgeScheduler newScheduler(int maxAttempts) {
+    return new StoragePurgeScheduler(Duration.ofSeconds(1), 1, maxAttempts, Duration.ofMinutes(1));
+  }
+
+  private static StoragePurgeDAO schedulePurge(String storageLocation) {
+    UUID entityId = UUID.randomUUID();
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      Transaction tx = session.beginTransaction();
+      StoragePurgeRepository.getInstance()
+          .schedulePurge(session, entityId, Constants.TABLE, storageLocation);
+      tx.commit();
+    }
+    return findPurge(entityId).orElseThrow();
+  }
+
+  private static Optional<StoragePurgeDAO> findPurge(UUID entityId) {
+    return StoragePurgeRepository.getInstance().listPurges(Optional.empty(), 1000).stream()
+        .filter(purge -> purge.getEntityId().equals(entityId))
+        .findFirst();
+  }
+}
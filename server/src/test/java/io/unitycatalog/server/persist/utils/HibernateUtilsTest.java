@@ -0,0 +1,58 @@
+package io.unitycatalog.server.persist.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class HibernateUtilsTest {
+
+  @BeforeAll
+  public static void setUpDatabase() {
+    System.setProperty("server.env", "test");
+  }
+
+  @Test
+  public void testConnectionsComeFromHikari() throws Exception {
+    ConnectionProvider connectionProvider =
+        HibernateUtils.getSessionFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(ConnectionProvider.class);
+    assertThat(connectionProvider).isInstanceOf(DatasourceConnectionProviderImpl.class);
+    DataSource dataSource = connectionProvider.unwrap(DataSource.class);
+    assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+    HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+    assertThat(hikariDataSource.getPoolName()).isEqualTo("uc-hibernate");
+    // Settings with the hibernate.hikari. prefix in hibernate.properties reach the pool
+    assertThat(hikariDataSource.getMaximumPoolSize()).isEqualTo(20);
+    assertThat(hikariDataSource.getJdbcUrl()).startsWith("jdbc:h2:mem:testdb");
+  }
+
+  @Test
+  public void testLegacyConnectionSettingsConfigureThePool() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1");
+    configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+    configuration.setProperty("hibernate.connection.username", "legacy_user");
+    configuration.setProperty("hibernate.connection.password", "legacy_password");
+    configuration.setProperty("hibernate.hikari.maximumPoolSize", "3");
+    try (HikariDataSource dataSource = HibernateUtils.createDataSource(configuration)) {
+      assertThat(dataSource.getJdbcUrl()).isEqualTo("jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1");
+      assertThat(dataSource.getDriverClassName()).isEqualTo("org.h2.Driver");
+      assertThat(dataSource.getUsername()).isEqualTo("legacy_user");
+      assertThat(dataSource.getPassword()).isEqualTo("legacy_password");
+      assertThat(dataSource.getMaximumPoolSize()).isEqualTo(3);
+      try (Connection connection = dataSource.getConnection()) {
+        assertThat(connection.getMetaData().getUserName()).isEqualToIgnoringCase("legacy_user");
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.unitycatalog.server.persist.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalDirectoryDeleterTest {
+  @TempDir Path tempDir;
+
+  @Test
+  public void testDeleteDirectoryTree() throws Exception {
+    Path table = tempDir.resolve("table");
+    Files.createDirectories(table.resolve("_delta_log"));
+    Files.writeString(table.resolve("_delta_log/00000000000000000000.json"), "{}");
+    for (int year = 0; year < 3; year++) {
+      for (int month = 0; month < 4; month++) {
+        Path partition = Files.createDirectories(table.resolve("y=" + year + "/m=" + month));
+        for (int file = 0; file < 5; file++) {
+          Files.writeString(partition.resolve("part-" + file + ".parquet"), "data");
+        }
+      }
+    }
+    // Empty directories are deleted too
+    Files.createDirectories(table.resolve("empty/nested"));
+
+    LocalDirectoryDeleter deleter = new LocalDirectoryDeleter(4);
+    // 61 files, 3 + 12 partition directories, _delta_log, empty, nested and the table itself
+    assertThat(deleter.deleteDirectory(table)).isEqualTo(61 + 3 + 12 + 4);
+    assertThat(table).doesNotExist();
+    assertThat(tempDir).exists();
+  }
+
+  @Test
+  public void testSymbolicLinksAreNotFollowed() throws Exception {
+    Path outside = Files.createDirectories(tempDir.resolve("outside"));
+    Files.writeString(outside.resolve("keep.txt"), "keep");
+    Path table = Files.createDirectories(tempDir.resolve("table"));
+    Files.createSymbolicLink(table.resolve("link"), outside);
+
+    new LocalDirectoryDeleter(2).deleteDirectory(table);
+    assertThat(table).doesNotExist();
+    assertThat(outside.resolve("keep.txt")).exists();
+  }
+
+  @Test
+  public void testMissingDirectory() {
+    assertThatThrownBy(() -> new LocalDirectoryDeleter(2).deleteDirectory(tempDir.resolve("none")))
+        .isInstanceOf(NoSuchFileException.class);
+  }
+}
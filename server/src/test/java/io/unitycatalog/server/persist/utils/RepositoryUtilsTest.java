@@ -0,0 +1,122 @@
+package io.unitycatalog.server.persist.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.unitycatalog.server.exception.BaseException;
+import io.unitycatalog.server.exception.ErrorCode;
+import io.unitycatalog.server.model.CreateCatalog;
+import io.unitycatalog.server.model.CreateSchema;
+import io.unitycatalog.server.model.CreateTable;
+import io.unitycatalog.server.model.DataSourceFormat;
+import io.unitycatalog.server.model.TableInfo;
+import io.unitycatalog.server.model.TableType;
+import io.unitycatalog.server.persist.CatalogRepository;
+import io.unitycatalog.server.persist.SchemaRepository;
+import io.unitycatalog.server.persist.TableRepository;
+import io.unitycatalog.server.persist.dao.TableInfoDAO;
+import java.util.List;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RepositoryUtilsTest {
+
+  private static final String CATALOG_NAME = "full_name_catalog";
+  private static final String SCHEMA_NAME = "full_name_schema";
+  private static final String TABLE_NAME = "full_name_table";
+
+  private final CatalogRepository catalogRepository = CatalogRepository.getInstance();
+  private final TableRepository tableRepository = TableRepository.getInstance();
+  private TableInfo tableInfo;
+
+  @BeforeAll
+  public static void setUpDatabase() {
+    System.setProperty("server.env", "test");
+  }
+
+  @BeforeEach
+  public void setUp() {
+    catalogRepository.addCatalog(new CreateCatalog().name(CATALOG_NAME));
+    SchemaRepository.getInstance()
+        .createSchema(new CreateSchema().catalogName(CATALOG_NAME).name(SCHEMA_NAME));
+    tableInfo =
+        tableRepository.createTable(
+            new CreateTable()
+                .name(TABLE_NAME)
+                .catalogName(CATALOG_NAME)
+                .schemaName(SCHEMA_NAME)
+                .columns(List.of())
+                .storageLocation("/tmp/fullNameTable")
+                .tableType(TableType.EXTERNAL)
+                .dataSourceFormat(DataSourceFormat.DELTA));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    catalogRepository.deleteCatalog(CATALOG_NAME, true);
+  }
+
+  @Test
+  public void testFindByFullName() {
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      TableInfoDAO tableInfoDAO =
+          RepositoryUtils.findInSchemaByFullName(
+              session, TableInfoDAO.class, CATALOG_NAME, SCHEMA_NAME, TABLE_NAME);
+      assertThat(tableInfoDAO.getId().toString()).isEqualTo(tableInfo.getTableId());
+
+      assertThat(
+              RepositoryUtils.findInSchemaByFullName(
+                  session, TableInfoDAO.class, CATALOG_NAME, SCHEMA_NAME, "missing"))
+          .isNull();
+      assertThatThrownBy(
+              () ->
+                  RepositoryUtils.findInSchemaByFullName(
+                      session, TableInfoDAO.class, CATALOG_NAME, "missing", TABLE_NAME))
+          .isInstanceOf(BaseException.class)
+          .hasMessage("Schema not found: " + CATALOG_NAME + ".missing");
+      assertThatThrownBy(
+              () ->
+                  RepositoryUtils.findInSchemaByFullName(
+                      session, TableInfoDAO.class, "missing", SCHEMA_NAME, TABLE_NAME))
+          .isInstanceOf(BaseException.class)
+          .hasMessage("Catalog not found: missing");
+    }
+  }
+
+  @Test
+  public void testNotFoundReportsTheMissingLevel() {
+    assertThat(tableRepository.getTable(CATALOG_NAME + "." + SCHEMA_NAME + "." + TABLE_NAME))
+        .extracting(TableInfo::getTableId)
+        .isEqualTo(tableInfo.getTableId());
+
+    assertNotFound(
+        () -> tableRepository.getTable("missing." + SCHEMA_NAME + "." + TABLE_NAME),
+        "Catalog not found: missing");
+    assertNotFound(
+        () -> tableRepository.getTable(CATALOG_NAME + ".missing." + TABLE_NAME),
+        "Schema not found: " + CATALOG_NAME + ".missing");
+    assertNotFound(
+        () -> tableRepository.getTable(CATALOG_NAME + "." + SCHEMA_NAME + ".missing"),
+        "Table not found: " + CATALOG_NAME + "." + SCHEMA_NAME + ".missing");
+
+    assertNotFound(
+        () -> tableRepository.getTableUniformMetadataLocation("missing", SCHEMA_NAME, TABLE_NAME),
+        "Catalog not found: missing");
+    assertNotFound(
+        () -> tableRepository.getTableUniformMetadataLocation(CATALOG_NAME, "missing", TABLE_NAME),
+        "Schema not found: " + CATALOG_NAME + ".missing");
+    assertNotFound(
+        () -> tableRepository.getTableUniformMetadataLocation(CATALOG_NAME, SCHEMA_NAME, "missing"),
+        "Table not found: " + CATALOG_NAME + "." + SCHEMA_NAME + ".missing");
+  }
+
+  private static void assertNotFound(Runnable lookup, String message) {
+    assertThatThrownBy(lookup::run)
+        .isInstanceOfSatisfying(
+            BaseException.class, e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.NOT_FOUND))
+        .hasMessage(message);
+  }
+}
@@ -0,0 +1,27 @@
+package io.unitycatalog.server.persist.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amazonaws.services.s3.AmazonS3;
+import org.junit.jupiter.api.Test;
+
+public class S3ClientRegistryTest {
+
+  @Test
+  public void testClientsAreSharedPerRegionAndCredentials() {
+    S3ClientRegistry registry = new S3ClientRegistry(10);
+    AmazonS3 client = registry.getClient("us-west-2", null, "key", "secret", "token");
+    assertThat(registry.getClient("us-west-2", null, "key", "secret", "token")).isSameAs(client);
+    assertThat(registry.getClient("us-east-1", null, "key", "secret", "token"))
+        .isNotSameAs(client);
+    assertThat(registry.getClient("us-west-2", null, "key", "secret", "rotated"))
+        .isNotSameAs(client);
+
+    // Shut down clients are replaced
+    registry.invalidateAll();
+    assertThatThrownBy(() -> client.listBuckets()).isInstanceOf(IllegalStateException.class);
+    assertThat(registry.getClient("us-west-2", null, "key", "secret", "token"))
+        .isNotSameAs(client);
+  }
+}
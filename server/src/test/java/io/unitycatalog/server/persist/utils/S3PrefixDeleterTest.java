@@ -0,0 +1,118 @@
+package io.unitycatalog.server.persist.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.adobe.testing.s3mock.junit5.S3MockExtension;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import io.unitycatalog.server.exception.BaseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+
+public class S3PrefixDeleterTest {
+  @RegisterExtension
+  public static final S3MockExtension S3_MOCK = S3MockExtension.builder().silent().build();
+
+  private static final String BUCKET = "test-bucket";
+
+  @Test
+  public void testDeletePrefixInBatches() {
+    AmazonS3 s3Client = S3_MOCK.createS3Client();
+    s3Client.createBucket(BUCKET);
+    for (int i = 0; i < 95; i++) {
+      s3Client.putObject(BUCKET, "table/data/part-" + i + ".parquet", "data");
+    }
+    s3Client.putObject(BUCKET, "table2/part-0.parquet", "data");
+
+    S3PrefixDeleter deleter = new S3PrefixDeleter(3, 1, 10);
+    assertThat(deleter.deletePrefix(s3Client, BUCKET, "table/")).isEqualTo(95);
+    assertThat(s3Client.listObjectsV2(BUCKET, "table/").getKeyCount()).isZero();
+    assertThat(s3Client.doesObjectExist(BUCKET, "table2/part-0.parquet")).isTrue();
+  }
+
+  @Test
+  public void testPartialFailuresAreRetried() {
+    AmazonS3 s3Client = mockListing("a", "b", "c");
+    when(s3Client.deleteObjects(any()))
+        .thenThrow(deleteErrors("b"))
+        .thenReturn(new DeleteObjectsResult(List.of()));
+
+    S3PrefixDeleter deleter = new S3PrefixDeleter(2, 1, 10);
+    assertThat(deleter.deletePrefix(s3Client, BUCKET, "table/")).isEqualTo(3);
+    ArgumentCaptor<DeleteObjectsRequest> requests =
+        ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(s3Client, times(2)).deleteObjects(requests.capture());
+    assertThat(requests.getAllValues().get(1).getKeys())
+        .extracting(DeleteObjectsRequest.KeyVersion::getKey)
+        .containsExactly("b");
+  }
+
+  @Test
+  public void testFailuresAfterRetriesAreReported() {
+    AmazonS3 s3Client = mockListing("a", "b", "c");
+    when(s3Client.deleteObjects(any())).thenThrow(deleteErrors("c"));
+
+    S3PrefixDeleter deleter = new S3PrefixDeleter(2, 1, 10);
+    assertThatThrownBy(() -> deleter.deletePrefix(s3Client, BUCKET, "table/"))
+        .isInstanceOf(BaseException.class)
+        .hasMessageContaining("Failed to delete 1 objects");
+  }
+
+  @Test
+  public void testListingFailureWaitsForSubmittedDeletes() {
+    AmazonS3 s3Client = mockListing("a", "b");
+    ListObjectsV2Result firstPage = s3Client.listObjectsV2(new ListObjectsV2Request());
+    firstPage.setTruncated(true);
+    when(s3Client.listObjectsV2(any(ListObjectsV2Request.class)))
+        .thenReturn(firstPage)
+        .thenThrow(new AmazonServiceException("Listing failed"));
+    AtomicBoolean deleted = new AtomicBoolean();
+    when(s3Client.deleteObjects(any()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(200);
+              deleted.set(true);
+              return new DeleteObjectsResult(List.of());
+            });
+
+    S3PrefixDeleter deleter = new S3PrefixDeleter(2, 1, 10);
+    assertThatThrownBy(() -> deleter.deletePrefix(s3Client, BUCKET, "table/"))
+        .isInstanceOf(AmazonServiceException.class);
+    // The client is no longer in use once the deleter has returned
+    assertThat(deleted).isTrue();
+  }
+
+  private static AmazonS3 mockListing(String... keys) {
+    ListObjectsV2Result listing = new ListObjectsV2Result();
+    for (String key : keys) {
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setKey("table/" + key);
+      listing.getObjectSummaries().add(summary);
+    }
+    AmazonS3 s3Client = mock();
+    when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing);
+    return s3Client;
+  }
+
+  private static MultiObjectDeleteException deleteErrors(String key) {
+    MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+    error.setKey(key);
+    error.setCode("SlowDown");
+    return new MultiObjectDeleteException(List.of(error), List.of());
+  }
+}
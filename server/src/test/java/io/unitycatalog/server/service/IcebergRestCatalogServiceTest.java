@@ -0,0 +1,210 @@
+package io.unitycatalog.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.server.Server;
+import com.linecorp.armeria.server.annotation.JacksonRequestConverterFunction;
+import com.linecorp.armeria.server.annotation.JacksonResponseConverterFunction;
+import io.unitycatalog.client.ApiException;
+import io.unitycatalog.client.model.CreateCatalog;
+import io.unitycatalog.client.model.CreateSchema;
+import io.unitycatalog.client.model.CreateTable;
+import io.unitycatalog.client.model.DataSourceFormat;
+import io.unitycatalog.client.model.TableInfo;
+import io.unitycatalog.client.model.TableType;
+import io.unitycatalog.server.base.BaseServerTest;
+import io.unitycatalog.server.base.catalog.CatalogOperations;
+import io.unitycatalog.server.persist.dao.TableInfoDAO;
+import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.sdk.catalog.SdkCatalogOperations;
+import io.unitycatalog.server.sdk.schema.SdkSchemaOperations;
+import io.unitycatalog.server.sdk.tables.SdkTableOperations;
+import io.unitycatalog.server.service.iceberg.CredentialVendor;
+import io.unitycatalog.server.service.iceberg.MetadataService;
+import io.unitycatalog.server.service.iceberg.PagedListNamespacesResponse;
+import io.unitycatalog.server.service.iceberg.PagedListTablesResponse;
+import io.unitycatalog.server.service.iceberg.TableMetricsStore;
+import io.unitycatalog.server.utils.RESTObjectMapper;
+import io.unitycatalog.server.utils.TestUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.rest.responses.ErrorResponse;
+import org.apache.iceberg.rest.responses.ErrorResponseParser;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Error mapping and listing limits of the Iceberg REST catalog service, with a stubbed metadata
+ * service.
+ */
+public class IcebergRestCatalogServiceTest extends BaseServerTest {
+
+  private static final String METADATA_LOCATION =
+      "file:///tmp/uniform_table/metadata/v1.metadata.json";
+  private static final String TABLE_PATH =
+      "/v1/namespaces/"
+          + TestUtils.CATALOG_NAME
+          + "."
+          + TestUtils.SCHEMA_NAME
+          + "/tables/"
+          + TestUtils.TABLE_NAME;
+
+  private final MetadataService metadataService = mock();
+  private CatalogOperations catalogOperations;
+  private Server server;
+  private WebClient client;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp();
+    catalogOperations = new SdkCatalogOperations(TestUtils.createApiClient(serverConfig));
+    cleanUp();
+    createUniformTable();
+
+    server =
+        Server.builder()
+            .http(0)
+            .annotatedService(
+                new IcebergRestCatalogService(
+                    metadataService, new TableMetricsStore(), new CredentialVendor()),
+                new JacksonRequestConverterFunction(RESTObjectMapper.mapper()),
+                new JacksonResponseConverterFunction(RESTObjectMapper.mapper()))
+            .build();
+    server.start().join();
+    client = WebClient.of("http://127.0.0.1:" + server.activeLocalPort());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.stop().join();
+    cleanUp();
+    super.tearDown();
+  }
+
+  private void cleanUp() {
+    try {
+      catalogOperations.deleteCatalog(TestUtils.CATALOG_NAME, Optional.of(true));
+    } catch (Exception e) {
+      // Ignore
+    }
+  }
+
+  private void createUniformTable() {
+    try {
+      catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+      new SdkSchemaOperations(TestUtils.createApiClient(serverConfig))
+          .createSchema(
+              new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+      TableInfo tableInfo =
+          new SdkTableOperations(TestUtils.createApiClient(serverConfig))
+              .createTable(
+                  new CreateTable()
+                      .name(TestUtils.TABLE_NAME)
+                      .catalogName(TestUtils.CATALOG_NAME)
+                      .schemaName(TestUtils.SCHEMA_NAME)
+                      .columns(List.of())
+                      .storageLocation("/tmp/stagingLocation")
+                      .tableType(TableType.EXTERNAL)
+                      .dataSourceFormat(DataSourceFormat.DELTA));
+      try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+        Transaction tx = session.beginTransaction();
+        TableInfoDAO tableInfoDAO =
+            session.get(TableInfoDAO.class, UUID.fromString(tableInfo.getTableId()));
+        tableInfoDAO.setUniformIcebergMetadataLocation(METADATA_LOCATION);
+        tx.commit();
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void testLoadTableTimeout() {
+    when(metadataService.readTableMetadataAsync(anyString(), anyBoolean()))
+        .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+    assertErrorResponse(504, TimeoutException.class);
+  }
+
+  @Test
+  public void testLoadTableRejected() {
+    when(metadataService.readTableMetadataAsync(anyString(), anyBoolean()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                new RejectedExecutionException("Too many pending metadata reads")));
+
+    assertErrorResponse(503, RejectedExecutionException.class);
+  }
+
+  @Test
+  public void testUnpaginatedListingIsCapped() throws ApiException, IOException {
+    SdkSchemaOperations schemaOperations =
+        new SdkSchemaOperations(TestUtils.createApiClient(serverConfig));
+    for (String schemaName : List.of("capped_a", "capped_b")) {
+      schemaOperations.createSchema(
+          new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(schemaName));
+    }
+    IcebergRestCatalogService service =
+        new IcebergRestCatalogService(
+            metadataService, new TableMetricsStore(), new CredentialVendor(), 2);
+    Optional<String> parent = Optional.of(TestUtils.CATALOG_NAME);
+
+    // Cut off with a token to the rest
+    PagedListNamespacesResponse first =
+        service.listNamespaces(parent, Optional.empty(), Optional.empty());
+    assertThat(first.getNamespaces()).hasSize(2);
+    assertThat(first.getNextPageToken()).isNotNull();
+    PagedListNamespacesResponse rest =
+        service.listNamespaces(parent, Optional.of(first.getNextPageToken()), Optional.empty());
+    assertThat(rest.getNamespaces()).hasSize(1);
+    assertThat(rest.getNextPageToken()).isNull();
+    List<String> schemaNames = new ArrayList<>();
+    for (Namespace namespace : first.getNamespaces()) {
+      schemaNames.add(namespace.level(1));
+    }
+    schemaNames.add(rest.getNamespaces().get(0).level(1));
+    assertThat(schemaNames)
+        .isSorted()
+        .containsExactlyInAnyOrder("capped_a", "capped_b", TestUtils.SCHEMA_NAME);
+
+    // Shorter listings are returned whole
+    PagedListTablesResponse tables =
+        service.listTables(
+            TestUtils.CATALOG_NAME + "." + TestUtils.SCHEMA_NAME,
+            Optional.empty(),
+            Optional.empty());
+    assertThat(tables.getIdentifiers()).hasSize(1);
+    assertThat(tables.getNextPageToken()).isNull();
+
+    assertThatThrownBy(
+            () ->
+                new IcebergRestCatalogService(
+                    metadataService, new TableMetricsStore(), new CredentialVendor(), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void assertErrorResponse(int status, Class<? extends Exception> type) {
+    AggregatedHttpResponse resp = client.get(TABLE_PATH).aggregate().join();
+    assertThat(resp.status().code()).isEqualTo(status);
+    ErrorResponse errorResponse = ErrorResponseParser.fromJson(resp.contentUtf8());
+    assertThat(errorResponse.code()).isEqualTo(status);
+    assertThat(errorResponse.type()).isEqualTo(type.getSimpleName());
+  }
+}
@@ -2,8 +2,13 @@ package io.unitycatalog.server.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.linecorp.armeria.client.WebClient;
 import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.auth.AuthToken;
 import io.unitycatalog.client.ApiException;
 import io.unitycatalog.client.model.CatalogInfo;
@@ -22,6 +27,7 @@ import io.unitycatalog.server.base.schema.SchemaOperations;
 import io.unitycatalog.server.base.table.TableOperations;
 import io.unitycatalog.server.persist.dao.TableInfoDAO;
 import io.unitycatalog.server.persist.utils.HibernateUtils;
+import io.unitycatalog.server.persist.utils.PagedListingHelper;
 import io.unitycatalog.server.sdk.catalog.SdkCatalogOperations;
 import io.unitycatalog.server.sdk.schema.SdkSchemaOperations;
 import io.unitycatalog.server.sdk.tables.SdkTableOperations;
@@ -29,6 +35,7 @@ import io.unitycatalog.server.utils.RESTObjectMapper;
 import io.unitycatalog.server.utils.TestUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -36,6 +43,14 @@ import java.util.UUID;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.metrics.CounterResult;
+import org.apache.iceberg.metrics.ImmutableScanMetricsResult;
+import org.apache.iceberg.metrics.ImmutableScanReport;
+import org.apache.iceberg.metrics.MetricsContext;
+import org.apache.iceberg.metrics.ScanReport;
+import org.apache.iceberg.rest.requests.ReportMetricsRequest;
+import org.apache.iceberg.rest.requests.ReportMetricsRequestParser;
 import org.apache.iceberg.rest.responses.ErrorResponse;
 import org.apache.iceberg.rest.responses.ErrorResponseParser;
 import org.apache.iceberg.rest.responses.GetNamespaceResponse;
@@ -44,11 +59,14 @@ import org.apache.iceberg.rest.responses.ListTablesResponse;
 import org.apache.iceberg.rest.responses.LoadTableResponse;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 public class IcebergRestCatalogTest extends BaseServerTest {
 
+  private static final String OTHER_SCHEMA_NAME = "other_schema";
+
   protected CatalogOperations catalogOperations;
   protected SchemaOperations schemaOperations;
   protected TableOperations tableOperations;
@@ -66,6 +84,12 @@ public class IcebergRestCatalogTest extends BaseServerTest {
     cleanUp();
   }
 
+  @AfterEach
+  public void tearDown() {
+    cleanUp();
+    super.tearDown();
+  }
+
   protected void cleanUp() {
     try {
       if (catalogOperations.getCatalog(TestUtils.CATALOG_NAME) != null) {
@@ -180,6 +204,293 @@ public class IcebergRestCatalogTest extends BaseServerTest {
     }
   }
 
+  @Test
+  public void testListNamespacesPagination() throws ApiException, IOException {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    for (String schemaName : List.of("schema_a", "schema_b", "schema_c")) {
+      schemaOperations.createSchema(
+          new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(schemaName));
+    }
+    String path = "/v1/namespaces?parent=" + TestUtils.CATALOG_NAME;
+
+    // Without pagination parameters every namespace is returned
+    JsonNode all = getJson(path);
+    assertThat(all.get("namespaces")).hasSize(3);
+    assertThat(all.has("next-page-token")).isFalse();
+
+    JsonNode firstPage = getJson(path + "&pageToken=&pageSize=2");
+    assertThat(firstPage.get("namespaces")).hasSize(2);
+    assertThat(firstPage.get("namespaces").get(1).get(1).asText()).isEqualTo("schema_b");
+    String nextPageToken = firstPage.get("next-page-token").asText();
+
+    JsonNode secondPage = getJson(path + "&pageToken=" + nextPageToken + "&pageSize=2");
+    assertThat(secondPage.get("namespaces")).hasSize(1);
+    assertThat(secondPage.get("namespaces").get(0).get(1).asText()).isEqualTo("schema_c");
+    assertThat(secondPage.has("next-page-token")).isFalse();
+  }
+
+  @Test
+  public void testListingSpansRepositoryPages() throws ApiException, IOException {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    // More schemas than the repository returns in one page
+    List<String> schemaNames = new ArrayList<>();
+    for (int i = 0; i < PagedListingHelper.DEFAULT_PAGE_SIZE + 5; i++) {
+      String schemaName = String.format("schema_%03d", i);
+      schemaOperations.createSchema(
+          new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(schemaName));
+      schemaNames.add(schemaName);
+    }
+
+    JsonNode all = getJson("/v1/namespaces?parent=" + TestUtils.CATALOG_NAME);
+    List<String> listed = new ArrayList<>();
+    all.get("namespaces").forEach(namespace -> listed.add(namespace.get(1).asText()));
+    assertThat(listed).containsExactlyElementsOf(schemaNames);
+    assertThat(all.has("next-page-token")).isFalse();
+
+    List<String> catalogs = new ArrayList<>();
+    getJson("/v1/namespaces")
+        .get("namespaces")
+        .forEach(namespace -> catalogs.add(namespace.get(0).asText()));
+    assertThat(catalogs).contains(TestUtils.CATALOG_NAME);
+
+    // Missing parents are reported as not found
+    for (String path :
+        List.of(
+            "/v1/namespaces?parent=missing",
+            "/v1/namespaces?parent=" + TestUtils.CATALOG_NAME + ".missing",
+            "/v1/namespaces/" + TestUtils.CATALOG_NAME + ".missing/tables",
+            "/v1/namespaces/missing." + TestUtils.SCHEMA_NAME + "/tables")) {
+      assertThat(client.get(path).aggregate().join().status().code()).as(path).isEqualTo(404);
+    }
+  }
+
+  @Test
+  public void testListTablesPagination() throws ApiException, IOException {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    schemaOperations.createSchema(
+        new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+    List<String> uniformTables = List.of("table_a", "table_b", "table_d", "table_e", "table_f");
+    for (String tableName :
+        List.of("table_a", "table_b", "table_c", "table_d", "table_e", "table_f")) {
+      TableInfo tableInfo =
+          tableOperations.createTable(
+              new CreateTable()
+                  .name(tableName)
+                  .catalogName(TestUtils.CATALOG_NAME)
+                  .schemaName(TestUtils.SCHEMA_NAME)
+                  .columns(List.of())
+                  .storageLocation("/tmp/" + tableName)
+                  .tableType(TableType.EXTERNAL)
+                  .dataSourceFormat(DataSourceFormat.DELTA));
+      if (uniformTables.contains(tableName)) {
+        try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+          Transaction tx = session.beginTransaction();
+          session
+              .get(TableInfoDAO.class, UUID.fromString(tableInfo.getTableId()))
+              .setUniformIcebergMetadataLocation("file:///tmp/" + tableName + "/metadata.json");
+          tx.commit();
+        }
+      }
+    }
+    String path =
+        "/v1/namespaces/" + TestUtils.CATALOG_NAME + "." + TestUtils.SCHEMA_NAME + "/tables";
+
+    // Walk the pages, table_c is not a uniform table and is skipped
+    List<String> listed = new ArrayList<>();
+    String pageToken = "";
+    int pages = 0;
+    do {
+      JsonNode page = getJson(path + "?pageToken=" + pageToken + "&pageSize=2");
+      assertThat(page.get("identifiers").size()).isLessThanOrEqualTo(2);
+      page.get("identifiers").forEach(identifier -> listed.add(identifier.get("name").asText()));
+      pageToken = page.has("next-page-token") ? page.get("next-page-token").asText() : null;
+      pages++;
+    } while (pageToken != null && pages < 10);
+    assertThat(pageToken).isNull();
+    assertThat(pages).isGreaterThanOrEqualTo(3);
+    assertThat(listed).containsExactlyElementsOf(uniformTables);
+  }
+
+  @Test
+  public void testListTablesOfOneSchema() throws ApiException, IOException, URISyntaxException {
+    createTablesWithSharedName();
+    assertThat(listTableNames(TestUtils.SCHEMA_NAME)).containsExactly("shared");
+    assertThat(listTableNames(OTHER_SCHEMA_NAME)).containsExactly("other");
+  }
+
+  private List<String> listTableNames(String schemaName) throws IOException {
+    List<String> tableNames = new ArrayList<>();
+    getJson("/v1/namespaces/" + TestUtils.CATALOG_NAME + "." + schemaName + "/tables")
+        .get("identifiers")
+        .forEach(identifier -> tableNames.add(identifier.get("name").asText()));
+    return tableNames;
+  }
+
+  @Test
+  public void testTableLookupsBySchemaAndName()
+      throws ApiException, IOException, URISyntaxException {
+    createTablesWithSharedName();
+    String shared = "/v1/namespaces/" + TestUtils.CATALOG_NAME + "." + TestUtils.SCHEMA_NAME;
+    String other = "/v1/namespaces/" + TestUtils.CATALOG_NAME + "." + OTHER_SCHEMA_NAME;
+
+    assertThat(client.head(shared + "/tables/shared").aggregate().join().status().code())
+        .isEqualTo(200);
+    AggregatedHttpResponse resp = client.get(shared + "/tables/shared").aggregate().join();
+    assertThat(resp.status().code()).isEqualTo(200);
+    assertThat(
+            RESTObjectMapper.mapper()
+                .readValue(resp.contentUtf8(), LoadTableResponse.class)
+                .tableMetadata()
+                .metadataFileLocation())
+        .isEqualTo(
+            Objects.requireNonNull(this.getClass().getResource("/iceberg.metadata.json"))
+                .getPath());
+
+    // Tables are not found in another schema, or when they are not uniform
+    for (String path :
+        List.of(
+            other + "/tables/shared",
+            shared + "/tables/other",
+            shared + "/tables/plain",
+            shared + "/tables/missing",
+            "/v1/namespaces/" + TestUtils.CATALOG_NAME + ".missing/tables/shared",
+            "/v1/namespaces/missing." + TestUtils.SCHEMA_NAME + "/tables/shared")) {
+      assertThat(client.head(path).aggregate().join().status().code()).as(path).isEqualTo(404);
+      resp = client.get(path).aggregate().join();
+      assertThat(resp.status().code()).as(path).isEqualTo(404);
+      assertThat(ErrorResponseParser.fromJson(resp.contentUtf8()).type())
+          .as(path)
+          .isEqualTo(NoSuchTableException.class.getSimpleName());
+    }
+  }
+
+  @Test
+  public void testReportMetrics() throws ApiException, IOException, URISyntaxException {
+    createUniformTable(TestUtils.TABLE_NAME);
+    String namespace = TestUtils.CATALOG_NAME + "." + TestUtils.SCHEMA_NAME;
+    ScanReport scanReport =
+        ImmutableScanReport.builder()
+            .tableName(TestUtils.TABLE_FULL_NAME)
+            .snapshotId(7)
+            .filter(Expressions.alwaysTrue())
+            .schemaId(0)
+            .projectedFieldIds(List.of(1))
+            .projectedFieldNames(List.of("id"))
+            .scanMetrics(
+                ImmutableScanMetricsResult.builder()
+                    .resultDataFiles(CounterResult.of(MetricsContext.Unit.COUNT, 3))
+                    .build())
+            .build();
+    String report = ReportMetricsRequestParser.toJson(ReportMetricsRequest.of(scanReport));
+    AggregatedHttpResponse resp =
+        client
+            .prepare()
+            .post("/v1/namespaces/" + namespace + "/tables/" + TestUtils.TABLE_NAME + "/metrics")
+            .content(MediaType.JSON, report)
+            .execute()
+            .aggregate()
+            .join();
+    assertThat(resp.status().code()).isEqualTo(200);
+
+    // Reports of unknown tables are rejected
+    resp =
+        client
+            .prepare()
+            .post("/v1/namespaces/" + namespace + "/tables/unknown/metrics")
+            .content(MediaType.JSON, report)
+            .execute()
+            .aggregate()
+            .join();
+    assertThat(resp.status().code()).isEqualTo(404);
+    assertThat(ErrorResponseParser.fromJson(resp.contentUtf8()).type())
+        .isEqualTo(NoSuchTableException.class.getSimpleName());
+
+    WebClient adminClient =
+        WebClient.builder(serverConfig.getServerUrl() + "/admin")
+            .auth(AuthToken.ofOAuth2(serverConfig.getAuthToken()))
+            .build();
+    resp =
+        adminClient
+            .get("/iceberg/metrics-reports?table=" + TestUtils.TABLE_FULL_NAME)
+            .aggregate()
+            .join();
+    assertThat(resp.status().code()).isEqualTo(200);
+    JsonNode metrics = RESTObjectMapper.mapper().readTree(resp.contentUtf8());
+    assertThat(metrics.get("scanReports").asLong()).isEqualTo(1);
+    assertThat(metrics.get("scanMetrics").get("result_data_files").get("total").asLong())
+        .isEqualTo(3);
+
+    resp =
+        adminClient
+            .get("/iceberg/metrics-reports?table=" + namespace + ".unknown")
+            .aggregate()
+            .join();
+    assertThat(resp.status().code()).isEqualTo(404);
+  }
+
+  /** Create a table in the test schema that is served as Iceberg from the test metadata file. */
+  private void createUniformTable(String tableName)
+      throws ApiException, IOException, URISyntaxException {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    schemaOperations.createSchema(
+        new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(TestUtils.SCHEMA_NAME));
+    createTable(TestUtils.SCHEMA_NAME, tableName, true);
+  }
+
+  /**
+   * Create a table in a schema of the test catalog. A uniform table is served as Iceberg from the
+   * test metadata file.
+   */
+  private void createTable(String schemaName, String tableName, boolean uniform)
+      throws ApiException, IOException, URISyntaxException {
+    TableInfo tableInfo =
+        tableOperations.createTable(
+            new CreateTable()
+                .name(tableName)
+                .catalogName(TestUtils.CATALOG_NAME)
+                .schemaName(schemaName)
+                .columns(List.of())
+                .storageLocation("/tmp/" + schemaName + "/" + tableName)
+                .tableType(TableType.EXTERNAL)
+                .dataSourceFormat(DataSourceFormat.DELTA));
+    if (!uniform) {
+      return;
+    }
+    String metadataLocation =
+        Objects.requireNonNull(this.getClass().getResource("/iceberg.metadata.json"))
+            .toURI()
+            .toString();
+    try (Session session = HibernateUtils.getSessionFactory().openSession()) {
+      Transaction tx = session.beginTransaction();
+      session
+          .get(TableInfoDAO.class, UUID.fromString(tableInfo.getTableId()))
+          .setUniformIcebergMetadataLocation(metadataLocation);
+      tx.commit();
+    }
+  }
+
+  /**
+   * Create two schemas that both have a table named "shared", a uniform one in the test schema and
+   * a plain one in the other schema. The other schema also has a uniform table named "other".
+   */
+  private void createTablesWithSharedName() throws ApiException, IOException, URISyntaxException {
+    catalogOperations.createCatalog(new CreateCatalog().name(TestUtils.CATALOG_NAME));
+    for (String schemaName : List.of(TestUtils.SCHEMA_NAME, OTHER_SCHEMA_NAME)) {
+      schemaOperations.createSchema(
+          new CreateSchema().catalogName(TestUtils.CATALOG_NAME).name(schemaName));
+    }
+    createTable(TestUtils.SCHEMA_NAME, "shared", true);
+    createTable(TestUtils.SCHEMA_NAME, "plain", false);
+    createTable(OTHER_SCHEMA_NAME, "shared", false);
+    createTable(OTHER_SCHEMA_NAME, "other", true);
+  }
+
+  private JsonNode getJson(String path) throws IOException {
+    AggregatedHttpResponse resp = client.get(path).aggregate().join();
+    assertThat(resp.status().code()).isEqualTo(200);
+    return RESTObjectMapper.mapper().readTree(resp.contentUtf8());
+  }
+
   @Test
   public void testTable() throws ApiException, IOException, URISyntaxException {
     CreateCatalog createCatalog =
@@ -302,6 +613,40 @@ public class IcebergRestCatalogTest extends BaseServerTest {
               Objects.requireNonNull(this.getClass().getResource("/iceberg.metadata.json"))
                   .getPath());
     }
+    // ETag and conditional requests
+    {
+      String path =
+          "/v1/namespaces/"
+              + TestUtils.CATALOG_NAME
+              + "."
+              + TestUtils.SCHEMA_NAME
+              + "/tables/"
+              + TestUtils.TABLE_NAME;
+      AggregatedHttpResponse resp = client.get(path).aggregate().join();
+      String etag = resp.headers().get(HttpHeaderNames.ETAG);
+      assertThat(etag).isNotNull();
+
+      AggregatedHttpResponse notModified =
+          client
+              .execute(
+                  RequestHeaders.builder(HttpMethod.GET, path)
+                      .set(HttpHeaderNames.IF_NONE_MATCH, etag)
+                      .build())
+              .aggregate()
+              .join();
+      assertThat(notModified.status().code()).isEqualTo(304);
+      assertThat(notModified.content().isEmpty()).isTrue();
+
+      AggregatedHttpResponse refs = client.get(path + "?snapshots=refs").aggregate().join();
+      assertThat(refs.status().code()).isEqualTo(200);
+      assertThat(refs.headers().get(HttpHeaderNames.ETAG)).isNotEqualTo(etag);
+      LoadTableResponse refsResponse =
+          RESTObjectMapper.mapper().readValue(refs.contentUtf8(), LoadTableResponse.class);
+      assertThat(refsResponse.tableMetadata().snapshots()).hasSize(1);
+
+      assertThat(client.get(path + "?snapshots=none").aggregate().join().status().code())
+          .isEqualTo(400);
+    }
 
     // List uniform tables
     {
@@ -325,6 +670,65 @@ public class IcebergRestCatalogTest extends BaseServerTest {
     }
   }
 
+  @Test
+  public void testLoadTableConditionalRequests()
+      throws ApiException, IOException, URISyntaxException {
+    createUniformTable(TestUtils.TABLE_NAME);
+    String path =
+        "/v1/namespaces/"
+            + TestUtils.CATALOG_NAME
+            + "."
+            + TestUtils.SCHEMA_NAME
+            + "/tables/"
+            + TestUtils.TABLE_NAME;
+    String etag = client.get(path).aggregate().join().headers().get(HttpHeaderNames.ETAG);
+    assertThat(etag).startsWith("W/\"");
+    String opaqueTag = etag.substring(2);
+
+    for (String ifNoneMatch :
+        List.of(etag, "*", opaqueTag, "W/\"other\", " + etag, "\"other\", " + opaqueTag)) {
+      AggregatedHttpResponse resp = getIfNoneMatch(path, ifNoneMatch);
+      assertThat(resp.status().code()).as(ifNoneMatch).isEqualTo(304);
+      assertThat(resp.headers().get(HttpHeaderNames.ETAG)).isEqualTo(etag);
+      assertThat(resp.content().isEmpty()).isTrue();
+    }
+
+    AggregatedHttpResponse modified = getIfNoneMatch(path, "W/\"other\"");
+    assertThat(modified.status().code()).isEqualTo(200);
+    assertThat(modified.headers().get(HttpHeaderNames.ETAG)).isEqualTo(etag);
+    assertThat(
+            RESTObjectMapper.mapper()
+                .readValue(modified.contentUtf8(), LoadTableResponse.class)
+                .tableMetadata()
+                .snapshots())
+        .isNotEmpty();
+
+    // Loading only the referenced snapshots is another representation, with its own tag
+    String refsPath = path + "?snapshots=refs";
+    AggregatedHttpResponse refs = getIfNoneMatch(refsPath, etag);
+    assertThat(refs.status().code()).isEqualTo(200);
+    String refsEtag = refs.headers().get(HttpHeaderNames.ETAG);
+    assertThat(refsEtag).isNotEqualTo(etag);
+    assertThat(
+            RESTObjectMapper.mapper()
+                .readValue(refs.contentUtf8(), LoadTableResponse.class)
+                .tableMetadata()
+                .snapshots())
+        .hasSize(1);
+    assertThat(getIfNoneMatch(refsPath, refsEtag).status().code()).isEqualTo(304);
+    assertThat(getIfNoneMatch(path, refsEtag).status().code()).isEqualTo(200);
+  }
+
+  private AggregatedHttpResponse getIfNoneMatch(String path, String ifNoneMatch) {
+    return client
+        .execute(
+            RequestHeaders.builder(HttpMethod.GET, path)
+                .set(HttpHeaderNames.IF_NONE_MATCH, ifNoneMatch)
+                .build())
+        .aggregate()
+        .join();
+  }
+
   @Test
   public void testLoadTablesInvalidNamespace() {
     AggregatedHttpResponse resp =
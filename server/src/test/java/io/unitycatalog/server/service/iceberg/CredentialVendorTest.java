@@ -0,0 +1,43 @@
+package io.unitycatalog.server.service.iceberg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.unitycatalog.server.model.AwsCredentials;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iceberg.aws.s3.S3FileIOProperties;
+import org.junit.jupiter.api.Test;
+
+public class CredentialVendorTest {
+
+  @Test
+  public void testCredentialsAreVendedAndCachedPerBucket() {
+    AtomicInteger lookups = new AtomicInteger();
+    CredentialVendor vendor =
+        new CredentialVendor(Duration.ofMinutes(5), 100) {
+          @Override
+          protected AwsCredentials findCredentials(String location) {
+            lookups.incrementAndGet();
+            return location.startsWith("s3://configured/")
+                ? new AwsCredentials()
+                    .accessKeyId("key")
+                    .secretAccessKey("secret")
+                    .sessionToken("token")
+                : null;
+          }
+        };
+
+    assertThat(vendor.vendCredentials("s3://configured/tbl/metadata/1.metadata.json"))
+        .containsEntry(S3FileIOProperties.ACCESS_KEY_ID, "key")
+        .containsEntry(S3FileIOProperties.SECRET_ACCESS_KEY, "secret")
+        .containsEntry(S3FileIOProperties.SESSION_TOKEN, "token");
+    vendor.vendCredentials("s3://configured/tbl/metadata/2.metadata.json");
+    // Other tables in the same bucket share the credentials
+    vendor.vendCredentials("s3://configured/other/metadata/1.metadata.json");
+    assertThat(lookups).hasValue(1);
+
+    assertThat(vendor.vendCredentials("s3://unknown/other/1.metadata.json")).isEmpty();
+    assertThat(vendor.vendCredentials("file:///tmp/local/1.metadata.json")).isEmpty();
+    assertThat(lookups).hasValue(2);
+  }
+}
@@ -0,0 +1,82 @@
+package io.unitycatalog.server.service.iceberg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import io.unitycatalog.server.model.AwsCredentials;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iceberg.aws.s3.S3FileIO;
+import org.apache.iceberg.io.FileIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+public class FileIOFactoryTest {
+
+  private TestFileIOFactory fileIOFactory;
+
+  @BeforeEach
+  public void setUp() {
+    fileIOFactory = new TestFileIOFactory();
+  }
+
+  @Test
+  public void testFileIOIsReusedPerBucket() {
+    FileIO first = fileIOFactory.getFileIO(URI.create("s3://bucket-a/table/metadata/1.json"));
+    FileIO second = fileIOFactory.getFileIO(URI.create("s3://bucket-a/other/metadata/2.json"));
+    FileIO otherBucket = fileIOFactory.getFileIO(URI.create("s3://bucket-b/table/1.json"));
+    assertThat(second).isSameAs(first);
+    assertThat(otherBucket).isNotSameAs(first);
+    assertThat(fileIOFactory.created).hasSize(2);
+
+    FileIO local = fileIOFactory.getFileIO(URI.create("file:///tmp/table/1.json"));
+    assertThat(fileIOFactory.getFileIO(URI.create("file:///tmp/other/1.json"))).isSameAs(local);
+  }
+
+  @Test
+  public void testFileIOIsReplacedWhenCredentialsRotate() {
+    URI location = URI.create("s3://bucket-a/table/metadata/1.json");
+    FileIO first = fileIOFactory.getFileIO(location);
+
+    fileIOFactory.credentials = credentials("key-2");
+    FileIO second = fileIOFactory.getFileIO(location);
+    assertThat(second).isNotSameAs(first);
+    assertThat(fileIOFactory.getFileIO(location)).isSameAs(second);
+    // Reads may still go through the old FileIO, it is only closed once it expires
+    verify(fileIOFactory.created.get(0), after(200).never()).close();
+
+    fileIOFactory.invalidateAll();
+    // FileIOs are closed asynchronously by the cache
+    verify(fileIOFactory.created.get(0), timeout(5000)).close();
+    verify(fileIOFactory.created.get(1), timeout(5000)).close();
+  }
+
+  private static AwsCredentials credentials(String accessKeyId) {
+    return new AwsCredentials()
+        .accessKeyId(accessKeyId)
+        .secretAccessKey("secret")
+        .sessionToken("token");
+  }
+
+  private static class TestFileIOFactory extends FileIOFactory {
+    private final List<S3FileIO> created = new ArrayList<>();
+    private AwsCredentials credentials = credentials("key-1");
+
+    @Override
+    protected AwsCredentials findCredentials(URI tableLocationUri) {
+      return credentials;
+    }
+
+    @Override
+    protected S3FileIO getS3FileIO(AwsCredentialsProvider awsCredentialsProvider) {
+      S3FileIO fileIO = mock();
+      created.add(fileIO);
+      return fileIO;
+    }
+  }
+}
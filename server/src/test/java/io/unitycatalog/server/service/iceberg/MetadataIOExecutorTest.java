@@ -0,0 +1,115 @@
+package io.unitycatalog.server.service.iceberg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class MetadataIOExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private MetadataIOExecutor executor;
+
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void testSlowStoreDoesNotBlockOtherStores() throws Exception {
+    executor = new MetadataIOExecutor(4, 1, 1, Duration.ofSeconds(30));
+    CompletableFuture<String> slow = executor.submit("s3://slow", this::awaitRelease);
+    CompletableFuture<String> queued = executor.submit("s3://slow", () -> "queued");
+    assertThat(executor.getQueuedTasks()).isEqualTo(1);
+
+    // The queue of the slow store is full, other stores are not affected
+    CompletableFuture<String> rejected = executor.submit("s3://slow", () -> "rejected");
+    assertThatThrownBy(rejected::get).hasCauseInstanceOf(RejectedExecutionException.class);
+    assertThat(executor.submit("s3://fast", () -> "fast").get(5, TimeUnit.SECONDS))
+        .isEqualTo("fast");
+    assertThat(queued).isNotDone();
+
+    release.countDown();
+    assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+  }
+
+  @Test
+  public void testReadsTimeOut() {
+    executor = new MetadataIOExecutor(1, 1, 1, Duration.ofMillis(100));
+    CompletableFuture<String> slow = executor.submit("s3://slow", this::awaitRelease);
+    assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  public void testTimedOutReadsAreInterrupted() throws Exception {
+    executor = new MetadataIOExecutor(2, 1, 1, Duration.ofMillis(100));
+    CompletableFuture<String> slow =
+        executor.submit(
+            "s3://slow",
+            () -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                return "interrupted";
+              }
+              return "slow";
+            });
+    assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(TimeoutException.class);
+
+    // The interrupted read returned and gave up the slot of its store
+    assertThat(executor.submit("s3://slow", () -> "next").get(5, TimeUnit.SECONDS))
+        .isEqualTo("next");
+  }
+
+  @Test
+  public void testTimedOutReadsKeepTheirSlotUntilTheyReturn() throws Exception {
+    executor = new MetadataIOExecutor(2, 1, 1, Duration.ofMillis(500));
+    CountDownLatch interrupted = new CountDownLatch(1);
+    CompletableFuture<String> slow =
+        executor.submit(
+            "s3://slow",
+            () -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+                // Keep running like a read that does not respond to interrupts
+                return awaitRelease();
+              }
+              return "slow";
+            });
+    assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(TimeoutException.class);
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The timed out read still runs and holds the only slot of its store
+    CompletableFuture<String> next = executor.submit("s3://slow", () -> "next");
+    assertThat(executor.getQueuedTasks()).isEqualTo(1);
+    assertThat(next).isNotDone();
+
+    release.countDown();
+    assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("next");
+  }
+
+  private String awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "slow";
+  }
+}
@@ -3,10 +3,13 @@ package io.unitycatalog.server.service.iceberg;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.junit5.S3MockExtension;
 import com.amazonaws.util.IOUtils;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import java.util.Objects;
 import lombok.SneakyThrows;
 import org.apache.iceberg.TableMetadata;
@@ -36,7 +39,7 @@ public class MetadataServiceTest {
   @SneakyThrows
   @BeforeEach
   public void setUp() {
-    metadataService = new MetadataService(mockFileIOFactory);
+    metadataService = new MetadataService(mockFileIOFactory, new MetadataIOExecutor());
   }
 
   @SneakyThrows
@@ -79,4 +82,40 @@ public class MetadataServiceTest {
     TableMetadata tableMetadata = metadataService.readTableMetadata(metadataLocation);
     assertThat(tableMetadata.uuid()).isEqualTo("55d4dc69-5b14-4483-bfc8-f33b80f99f99");
   }
+
+  @SneakyThrows
+  @Test
+  public void testTableMetadataIsCached() {
+    when(mockFileIOFactory.getFileIO(any())).thenReturn(new SimpleLocalFileIO());
+    String metadataLocation =
+        Objects.requireNonNull(this.getClass().getResource("/iceberg.metadata.json"))
+            .toURI()
+            .toString();
+    TableMetadata first = metadataService.readTableMetadata(metadataLocation);
+    TableMetadata second = metadataService.readTableMetadata(metadataLocation);
+    assertThat(second).isSameAs(first);
+    verify(mockFileIOFactory, times(1)).getFileIO(any());
+    CacheStats stats = metadataService.getCacheStats();
+    assertThat(stats.hitCount()).isEqualTo(1);
+    assertThat(stats.missCount()).isEqualTo(1);
+  }
+
+  @SneakyThrows
+  @Test
+  public void testRetainedBytesEstimate() {
+    when(mockFileIOFactory.getFileIO(any())).thenReturn(new SimpleLocalFileIO());
+    String metadataLocation =
+        Objects.requireNonNull(this.getClass().getResource("/iceberg.metadata.json"))
+            .toURI()
+            .toString();
+    TableMetadata metadata = metadataService.readTableMetadata(metadataLocation);
+    // Parsing this 2KB file retains about 5.5KB of heap
+    assertThat(MetadataService.estimateRetainedBytes(metadata)).isBetween(4096L, 16384L);
+
+    // Snapshots are usually most of it
+    TableMetadata withoutSnapshots =
+        TableMetadata.buildFrom(metadata).removeSnapshots(metadata.snapshots()).build();
+    assertThat(MetadataService.estimateRetainedBytes(withoutSnapshots))
+        .isLessThan(MetadataService.estimateRetainedBytes(metadata));
+  }
 }
@@ -0,0 +1,97 @@
+package io.unitycatalog.server.service.iceberg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.util.JsonUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StreamingMetadataParserTest {
+
+  private static final int HISTORICAL_SNAPSHOTS = 10_000;
+
+  private final FileIO fileIO = new SimpleLocalFileIO();
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testOnlyReferencedSnapshotsAreKept() throws Exception {
+    String location = writeMetadata(withHistory(loadMetadata()), "long-history.metadata.json");
+
+    TableMetadata full = TableMetadataParser.read(fileIO, location);
+    TableMetadata referenced =
+        StreamingMetadataParser.readReferencedSnapshots(fileIO.newInputFile(location));
+
+    assertThat(full.snapshots()).hasSize(HISTORICAL_SNAPSHOTS + 1);
+    assertThat(referenced.snapshots())
+        .extracting(Snapshot::snapshotId)
+        .containsExactly(full.currentSnapshot().snapshotId());
+    assertThat(referenced.snapshotLog()).hasSize(1);
+    assertThat(referenced.refs()).isEqualTo(full.refs());
+    assertThat(referenced.schemas()).hasSameSizeAs(full.schemas());
+    assertThat(referenced.lastUpdatedMillis()).isEqualTo(full.lastUpdatedMillis());
+    assertThat(referenced.metadataFileLocation()).isEqualTo(full.metadataFileLocation());
+  }
+
+  @Test
+  public void testSnapshotsBeforeRefs() throws Exception {
+    ObjectNode metadata = withHistory(loadMetadata());
+    // Move the snapshots in front of the refs
+    ObjectNode reordered = JsonUtil.mapper().createObjectNode();
+    reordered.set("snapshots", metadata.get("snapshots"));
+    reordered.setAll(metadata);
+    String location = writeMetadata(reordered, "reordered.metadata.json");
+
+    TableMetadata referenced =
+        StreamingMetadataParser.readReferencedSnapshots(fileIO.newInputFile(location));
+    assertThat(referenced.snapshots()).hasSize(1);
+    assertThat(referenced.currentSnapshot()).isNotNull();
+  }
+
+  private ObjectNode loadMetadata() throws Exception {
+    try (InputStream in = getClass().getResourceAsStream("/iceberg.metadata.json")) {
+      return (ObjectNode) JsonUtil.mapper().readTree(in);
+    }
+  }
+
+  /** Add unreferenced snapshots older than the current one, as left behind by past commits. */
+  private static ObjectNode withHistory(ObjectNode metadata) {
+    JsonNode current = metadata.get("snapshots").get(0);
+    long timestamp = current.get("timestamp-ms").asLong();
+    List<JsonNode> snapshots = new ArrayList<>();
+    List<JsonNode> snapshotLog = new ArrayList<>();
+    for (int i = HISTORICAL_SNAPSHOTS; i > 0; i--) {
+      ObjectNode snapshot = current.deepCopy();
+      snapshot.put("snapshot-id", i);
+      snapshot.put("timestamp-ms", timestamp - i);
+      snapshots.add(snapshot);
+      ObjectNode logEntry = JsonUtil.mapper().createObjectNode();
+      logEntry.put("timestamp-ms", timestamp - i);
+      logEntry.put("snapshot-id", i);
+      snapshotLog.add(logEntry);
+    }
+    snapshots.add(current);
+    snapshotLog.addAll(metadata.withArray("snapshot-log").findParents("snapshot-id"));
+    ((ArrayNode) metadata.get("snapshots")).removeAll().addAll(snapshots);
+    ((ArrayNode) metadata.get("snapshot-log")).removeAll().addAll(snapshotLog);
+    return metadata;
+  }
+
+  private String writeMetadata(JsonNode metadata, String fileName) throws Exception {
+    Path path = tempDir.resolve(fileName);
+    Files.write(path, JsonUtil.mapper().writeValueAsBytes(metadata));
+    return path.toUri().toString();
+  }
+}
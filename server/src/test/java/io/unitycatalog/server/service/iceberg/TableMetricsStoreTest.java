@@ -0,0 +1,87 @@
+package io.unitycatalog.server.service.iceberg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.metrics.CounterResult;
+import org.apache.iceberg.metrics.ImmutableCommitMetricsResult;
+import org.apache.iceberg.metrics.ImmutableCommitReport;
+import org.apache.iceberg.metrics.ImmutableScanMetricsResult;
+import org.apache.iceberg.metrics.ImmutableScanReport;
+import org.apache.iceberg.metrics.MetricsContext;
+import org.apache.iceberg.metrics.ScanReport;
+import org.apache.iceberg.metrics.TimerResult;
+import org.junit.jupiter.api.Test;
+
+public class TableMetricsStoreTest {
+
+  @Test
+  public void testReportsAreAggregatedPerTable() {
+    TableMetricsStore store = new TableMetricsStore(2, 100);
+    store.record("ns.fast", scanReport(1, 10));
+    store.record("ns.slow", scanReport(1, 200));
+    store.record("ns.slow", scanReport(2, 300));
+    store.record("ns.slow", scanReport(3, 100));
+    store.record(
+        "ns.slow",
+        ImmutableCommitReport.builder()
+            .tableName("ns.slow")
+            .snapshotId(4)
+            .sequenceNumber(4)
+            .operation("append")
+            .commitMetrics(
+                ImmutableCommitMetricsResult.builder()
+                    .attempts(CounterResult.of(MetricsContext.Unit.COUNT, 2))
+                    .build())
+            .build());
+
+    TableMetricsStore.TableMetricsSummary slow = store.getTableMetrics("ns.slow");
+    assertThat(slow.getScanReports()).isEqualTo(3);
+    assertThat(slow.getCommitReports()).isEqualTo(1);
+    TableMetricsStore.MetricStats planning = slow.getScanMetrics().get("planning_duration_ms");
+    assertThat(planning.getCount()).isEqualTo(3);
+    assertThat(planning.getTotal()).isEqualTo(600);
+    assertThat(planning.getMax()).isEqualTo(300);
+    assertThat(slow.getCommitMetrics().get("attempts").getTotal()).isEqualTo(2);
+
+    // Only the most recent reports are kept
+    assertThat(slow.getRecentReports())
+        .extracting(TableMetricsStore.Report::getSnapshotId)
+        .containsExactly(3L, 4L);
+    assertThat(slow.getRecentReports().get(1).getOperation()).isEqualTo("append");
+
+    assertThat(store.getTableMetrics())
+        .extracting(TableMetricsStore.TableMetricsSummary::getTable)
+        .containsExactly("ns.slow", "ns.fast");
+    assertThat(store.getTableMetrics("ns.unknown")).isNull();
+  }
+
+  @Test
+  public void testLimitsMustBePositive() {
+    assertThatThrownBy(() -> new TableMetricsStore(0, 100))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new TableMetricsStore(2, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ScanReport scanReport(long snapshotId, long planningMillis) {
+    return ImmutableScanReport.builder()
+        .tableName("table")
+        .snapshotId(snapshotId)
+        .filter(Expressions.alwaysTrue())
+        .schemaId(0)
+        .projectedFieldIds(List.of())
+        .projectedFieldNames(List.of())
+        .scanMetrics(
+            ImmutableScanMetricsResult.builder()
+                .totalPlanningDuration(
+                    TimerResult.of(TimeUnit.NANOSECONDS, Duration.ofMillis(planningMillis), 1))
+                .resultDataFiles(CounterResult.of(MetricsContext.Unit.COUNT, 5))
+                .build())
+        .build();
+  }
+}
@@ -0,0 +1,66 @@
+package io.unitycatalog.server.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Metrics;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class BlockingTaskExecutorsTest {
+
+  @Test
+  public void testBoundedExecutorRejectsWhenSaturated() throws Exception {
+    ScheduledExecutorService executor =
+        BlockingTaskExecutors.create(BlockingTaskExecutors.MODE_BOUNDED, 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    double rejectedBefore = Metrics.counter("uc.blocking.executor.rejected").count();
+    try {
+      Future<?> running =
+          executor.submit(
+              () -> {
+                started.countDown();
+                release.await();
+                return null;
+              });
+      assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+      Future<?> queued = executor.submit(() -> {});
+      assertThatThrownBy(() -> executor.execute(() -> {}))
+          .isInstanceOf(RejectedExecutionException.class);
+      assertThat(Metrics.counter("uc.blocking.executor.rejected").count())
+          .isEqualTo(rejectedBefore + 1);
+
+      release.countDown();
+      running.get(10, TimeUnit.SECONDS);
+      queued.get(10, TimeUnit.SECONDS);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testVirtualExecutorRunsTasks() throws Exception {
+    // Falls back to a bounded executor on runtimes without virtual threads
+    ScheduledExecutorService executor =
+        BlockingTaskExecutors.create(BlockingTaskExecutors.MODE_VIRTUAL, 2, 10);
+    try {
+      assertThat(executor.submit(() -> "done").get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInvalidConfiguration() {
+    assertThatThrownBy(() -> BlockingTaskExecutors.create("unknown", 1, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> BlockingTaskExecutors.create(BlockingTaskExecutors.MODE_BOUNDED, 1, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
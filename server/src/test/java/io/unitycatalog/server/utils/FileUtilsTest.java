@@ -3,11 +3,27 @@ package io.unitycatalog.server.utils;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.adobe.testing.s3mock.junit5.S3MockExtension;
+import com.amazonaws.services.s3.AmazonS3;
 import io.unitycatalog.server.exception.BaseException;
 import io.unitycatalog.server.persist.utils.FileUtils;
+import io.unitycatalog.server.persist.utils.S3ClientRegistry;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 
 public class FileUtilsTest {
+  @RegisterExtension
+  public static final S3MockExtension S3_MOCK = S3MockExtension.builder().silent().build();
+
+  private static final List<String> S3_PROPERTIES =
+      List.of(
+          "storageRoot",
+          "aws.region",
+          "aws.s3.endpoint",
+          "aws.s3.accessKey",
+          "aws.s3.secretKey",
+          "aws.s3.sessionToken");
 
   @Test
   public void testFileUtils() {
@@ -43,4 +59,31 @@ public class FileUtilsTest {
             })
         .isInstanceOf(BaseException.class);
   }
+
+  @Test
+  public void testS3Directories() {
+    AmazonS3 s3Mock = S3_MOCK.createS3Client();
+    s3Mock.createBucket("test-bucket");
+    System.setProperty("storageRoot", "s3://test-bucket/root");
+    System.setProperty("aws.region", "us-east-1");
+    System.setProperty("aws.s3.endpoint", "http://localhost:" + S3_MOCK.getHttpPort());
+    System.setProperty("aws.s3.accessKey", "accessKey");
+    System.setProperty("aws.s3.secretKey", "secretKey");
+    System.setProperty("aws.s3.sessionToken", "");
+    try {
+      String tablePath = FileUtils.createTableDirectory("catalog", "schema", "table");
+      assertThat(tablePath).isEqualTo("s3://test-bucket/root/catalog/schema/tables/table/");
+      assertThat(s3Mock.doesObjectExist("test-bucket", "root/catalog/schema/tables/table/"))
+          .isTrue();
+      assertThatThrownBy(() -> FileUtils.createTableDirectory("catalog", "schema", "table"))
+          .isInstanceOf(BaseException.class);
+
+      s3Mock.putObject("test-bucket", "root/catalog/schema/tables/table/part-0.parquet", "data");
+      FileUtils.deleteDirectory(tablePath);
+      assertThat(s3Mock.listObjects("test-bucket", "root/").getObjectSummaries()).isEmpty();
+    } finally {
+      S3_PROPERTIES.forEach(System::clearProperty);
+      S3ClientRegistry.getInstance().invalidateAll();
+    }
+  }
 }